@@ -1,33 +1,45 @@
 package com.novavista.binaa.center.controllers;
 
 import com.novavista.binaa.center.dto.request.DocumentDTO;
-import com.novavista.binaa.center.entity.Document;
+import com.novavista.binaa.center.dto.response.DocumentSearchResultDTO;
+import com.novavista.binaa.center.dto.response.DocumentStorageStatsDTO;
 import com.novavista.binaa.center.enums.DocumentType;
+import com.novavista.binaa.center.services.DocumentPreviewService;
+import com.novavista.binaa.center.services.DocumentSearchService;
 import com.novavista.binaa.center.services.DocumentService;
 import jakarta.validation.Valid;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.core.io.ByteArrayResource;
-import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 @RestController
 @RequestMapping("/api/documents")
 @Slf4j
 public class DocumentController {
     private final DocumentService documentService;
+    private final DocumentPreviewService documentPreviewService;
+    private final DocumentSearchService documentSearchService;
 
     @Autowired
-    public DocumentController(DocumentService documentService) {
+    public DocumentController(DocumentService documentService,
+                              DocumentPreviewService documentPreviewService,
+                              DocumentSearchService documentSearchService) {
         this.documentService = documentService;
+        this.documentPreviewService = documentPreviewService;
+        this.documentSearchService = documentSearchService;
     }
 
     @PostMapping
@@ -51,6 +63,19 @@ public class DocumentController {
         return ResponseEntity.ok(documentService.getDocumentsByCase(caseId));
     }
 
+    @GetMapping("/case/{caseId}/archive")
+    @PreAuthorize("hasAnyRole('ADMIN', 'STAFF')")
+    public ResponseEntity<StreamingResponseBody> downloadCaseArchive(@PathVariable Long caseId) {
+        log.info("Exporting documents of case: {}", caseId);
+        // Resolved before streaming starts, so an unknown case still gets a 404
+        List<DocumentDTO> documents = documentService.getDocumentsByCase(caseId);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType("application/zip"))
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"case-" + caseId + "-documents.zip\"")
+                .body(outputStream -> documentService.writeDocumentArchive(documents, outputStream));
+    }
+
     @GetMapping("/type/{type}")
     @PreAuthorize("hasAnyRole('ADMIN', 'STAFF')")
     public ResponseEntity<List<DocumentDTO>> getDocumentsByType(@PathVariable DocumentType type) {
@@ -78,13 +103,122 @@ public class DocumentController {
 
     @GetMapping("/download/{id}")
     @PreAuthorize("hasAnyRole('ADMIN', 'STAFF')")
-    public ResponseEntity<Resource> downloadDocument(@PathVariable Long id) {
-        Document document = documentService.getDocumentForDownload(id);
-        return ResponseEntity.ok()
+    public ResponseEntity<StreamingResponseBody> downloadDocument(
+            @PathVariable Long id,
+            @RequestHeader(value = HttpHeaders.RANGE, required = false) String rangeHeader,
+            @RequestHeader(value = HttpHeaders.IF_RANGE, required = false) String ifRange,
+            WebRequest webRequest) {
+        DocumentDTO document = documentService.getDocumentMetadata(id);
+        ResponseEntity.BodyBuilder response;
+
+        if (document.getContentHash() == null) {
+            // Inline content not yet migrated to storage has no reliable version or length
+            response = ResponseEntity.ok();
+            return withDownloadHeaders(response, document)
+                    .body(outputStream -> documentService.writeDocumentContent(id, outputStream));
+        }
+
+        // Answers If-None-Match without reading content. The upload date is not a usable
+        // Last-Modified: it has day precision and is kept when the content is replaced.
+        String eTag = "\"" + document.getContentHash() + "\"";
+        if (webRequest.checkNotModified(eTag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).build();
+        }
+
+        long length = document.getFileSize();
+        if (rangeHeader != null && (ifRange == null || ifRange.equals(eTag))) {
+            HttpRange range = parseSingleRange(rangeHeader);
+            if (range != null) {
+                long start;
+                long end;
+                try {
+                    start = range.getRangeStart(length);
+                    end = range.getRangeEnd(length);
+                } catch (IllegalArgumentException e) {
+                    return ResponseEntity.status(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE)
+                            .header(HttpHeaders.CONTENT_RANGE, "bytes */" + length)
+                            .build();
+                }
+                long count = end - start + 1;
+                log.debug("Serving bytes {}-{}/{} of document {}", start, end, length, id);
+                response = ResponseEntity.status(HttpStatus.PARTIAL_CONTENT)
+                        .header(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + length)
+                        .header(HttpHeaders.ACCEPT_RANGES, "bytes")
+                        .contentLength(count);
+                return withDownloadHeaders(response, document)
+                        .body(outputStream -> documentService.writeDocumentContent(id, outputStream, start, count));
+            }
+        }
+
+        response = ResponseEntity.ok()
+                .header(HttpHeaders.ACCEPT_RANGES, "bytes")
+                .contentLength(length);
+        return withDownloadHeaders(response, document)
+                .body(outputStream -> documentService.writeDocumentContent(id, outputStream));
+    }
+
+    private ResponseEntity.BodyBuilder withDownloadHeaders(ResponseEntity.BodyBuilder response, DocumentDTO document) {
+        return response
+                // Replaces the security default of no-store so browsers keep the copy and revalidate with the ETag
+                .cacheControl(CacheControl.noCache().cachePrivate())
                 .contentType(MediaType.parseMediaType(document.getContentType()))
                 .header(HttpHeaders.CONTENT_DISPOSITION,
-                        "attachment; filename=\"" + document.getFileName() + "\"")
-                .body(new ByteArrayResource(document.getFileData()));
+                        "attachment; filename=\"" + document.getFileName() + "\"");
+    }
+
+    /**
+     * Returns the requested range if exactly one was asked for; multi-range requests
+     * and malformed headers are answered with the full content
+     */
+    private HttpRange parseSingleRange(String rangeHeader) {
+        try {
+            List<HttpRange> ranges = HttpRange.parseRanges(rangeHeader);
+            return ranges.size() == 1 ? ranges.get(0) : null;
+        } catch (IllegalArgumentException e) {
+            log.debug("Ignoring invalid Range header: {}", rangeHeader);
+            return null;
+        }
+    }
+
+    /**
+     * Serves the thumbnail of a document. Clients that pass the previewHash from the
+     * document metadata as {@code v} get a URL that never changes content, which is
+     * cached for a year; without it the response must be revalidated by ETag.
+     */
+    @GetMapping("/{id}/preview")
+    @PreAuthorize("hasAnyRole('ADMIN', 'STAFF')")
+    public ResponseEntity<StreamingResponseBody> getDocumentPreview(
+            @PathVariable Long id,
+            @RequestParam(value = "v", required = false) String version,
+            WebRequest webRequest) {
+        String previewHash = documentPreviewService.getPreviewHash(id);
+        if (webRequest.checkNotModified("\"" + previewHash + "\"")) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).build();
+        }
+
+        CacheControl cacheControl = previewHash.equals(version)
+                ? CacheControl.maxAge(365, TimeUnit.DAYS).cachePrivate().immutable()
+                : CacheControl.noCache().cachePrivate();
+        return ResponseEntity.ok()
+                .cacheControl(cacheControl)
+                .contentType(MediaType.IMAGE_PNG)
+                .body(outputStream -> documentPreviewService.writePreview(previewHash, outputStream));
+    }
+
+    @GetMapping("/search")
+    @PreAuthorize("hasAnyRole('ADMIN', 'STAFF')")
+    public ResponseEntity<List<DocumentSearchResultDTO>> searchDocuments(
+            @RequestParam("q") String query,
+            @RequestParam(value = "limit", defaultValue = "20") int limit) {
+        log.info("Searching document contents");
+        return ResponseEntity.ok(documentSearchService.search(query, Math.max(1, Math.min(limit, 100))));
+    }
+
+    @GetMapping("/storage-stats")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<DocumentStorageStatsDTO> getStorageStats() {
+        log.info("Fetching document storage statistics");
+        return ResponseEntity.ok(documentService.getStorageStats());
     }
 
     @PutMapping("/{id}")
@@ -0,0 +1,67 @@
+package com.novavista.binaa.center.controllers;
+
+import com.novavista.binaa.center.dto.request.DocumentDTO;
+import com.novavista.binaa.center.dto.request.DocumentUploadRequestDTO;
+import com.novavista.binaa.center.dto.response.DocumentUploadStatusDTO;
+import com.novavista.binaa.center.services.DocumentUploadService;
+import jakarta.validation.Valid;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.io.InputStream;
+
+@RestController
+@RequestMapping("/api/documents/uploads")
+@Slf4j
+public class DocumentUploadController {
+    private final DocumentUploadService documentUploadService;
+
+    @Autowired
+    public DocumentUploadController(DocumentUploadService documentUploadService) {
+        this.documentUploadService = documentUploadService;
+    }
+
+    @PostMapping
+    @PreAuthorize("hasAnyRole('ADMIN', 'STAFF')")
+    public ResponseEntity<DocumentUploadStatusDTO> createUpload(@Valid @RequestBody DocumentUploadRequestDTO request) {
+        log.info("Creating chunked upload for case: {}", request.getCaseId());
+        return new ResponseEntity<>(documentUploadService.createUpload(request), HttpStatus.CREATED);
+    }
+
+    @GetMapping("/{uploadId}")
+    @PreAuthorize("hasAnyRole('ADMIN', 'STAFF')")
+    public ResponseEntity<DocumentUploadStatusDTO> getUpload(@PathVariable String uploadId) {
+        log.info("Fetching upload: {}", uploadId);
+        return ResponseEntity.ok(documentUploadService.getUpload(uploadId));
+    }
+
+    @PutMapping(value = "/{uploadId}/chunks/{index}", consumes = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    @PreAuthorize("hasAnyRole('ADMIN', 'STAFF')")
+    public ResponseEntity<DocumentUploadStatusDTO> uploadChunk(
+            @PathVariable String uploadId,
+            @PathVariable int index,
+            InputStream content) {
+        log.info("Receiving chunk {} of upload: {}", index, uploadId);
+        return ResponseEntity.ok(documentUploadService.writeChunk(uploadId, index, content));
+    }
+
+    @PostMapping("/{uploadId}/complete")
+    @PreAuthorize("hasAnyRole('ADMIN', 'STAFF')")
+    public ResponseEntity<DocumentDTO> completeUpload(@PathVariable String uploadId) {
+        log.info("Completing upload: {}", uploadId);
+        return new ResponseEntity<>(documentUploadService.completeUpload(uploadId), HttpStatus.CREATED);
+    }
+
+    @DeleteMapping("/{uploadId}")
+    @PreAuthorize("hasAnyRole('ADMIN', 'STAFF')")
+    public ResponseEntity<Void> abortUpload(@PathVariable String uploadId) {
+        log.info("Aborting upload: {}", uploadId);
+        documentUploadService.abortUpload(uploadId);
+        return ResponseEntity.noContent().build();
+    }
+}
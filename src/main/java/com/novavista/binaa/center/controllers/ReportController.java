@@ -1,8 +1,21 @@
 package com.novavista.binaa.center.controllers;
 
 import com.novavista.binaa.center.dto.request.ReportDTO;
+import com.novavista.binaa.center.dto.request.RegistrationFormBatchRequestDTO;
 import com.novavista.binaa.center.dto.request.ReportGenerationRequestDTO;
+import com.novavista.binaa.center.dto.response.AttendanceReportDTO;
+import com.novavista.binaa.center.dto.response.FormRenderStatsDTO;
+import com.novavista.binaa.center.dto.response.ReportJobDTO;
 import com.novavista.binaa.center.dto.response.ReportResultDTO;
+import com.novavista.binaa.center.dto.response.ReportSliceDTO;
+import com.novavista.binaa.center.enums.BatchOutputFormat;
+import com.novavista.binaa.center.enums.FormOutputMode;
+import com.novavista.binaa.center.services.AttendanceReportService;
+import com.novavista.binaa.center.services.ProgressReportPregenerationService;
+import com.novavista.binaa.center.services.RegistrationFormBatch;
+import com.novavista.binaa.center.services.RegistrationFormBatchService;
+import com.novavista.binaa.center.services.RenderedPdf;
+import com.novavista.binaa.center.services.ReportJobService;
 import com.novavista.binaa.center.services.ReportService;
 import jakarta.validation.Valid;
 import lombok.extern.slf4j.Slf4j;
@@ -13,19 +26,43 @@ import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.*;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.BufferedWriter;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
+import java.time.YearMonth;
 import java.util.List;
+import java.util.Locale;
+import java.util.stream.Collectors;
 
 @RestController
 @RequestMapping("/api/reports")
 @Slf4j
 public class ReportController {
+    private static final int MAX_SLICE_SIZE = 100;
+
     private final ReportService reportService;
+    private final RegistrationFormBatchService registrationFormBatchService;
+    private final ReportJobService reportJobService;
+    private final AttendanceReportService attendanceReportService;
+    private final ProgressReportPregenerationService progressReportPregenerationService;
 
     @Autowired
-    public ReportController(ReportService reportService) {
+    public ReportController(ReportService reportService,
+                            RegistrationFormBatchService registrationFormBatchService,
+                            ReportJobService reportJobService,
+                            AttendanceReportService attendanceReportService,
+                            ProgressReportPregenerationService progressReportPregenerationService) {
         this.reportService = reportService;
+        this.registrationFormBatchService = registrationFormBatchService;
+        this.reportJobService = reportJobService;
+        this.attendanceReportService = attendanceReportService;
+        this.progressReportPregenerationService = progressReportPregenerationService;
     }
 
     @PostMapping("/generate")
@@ -35,6 +72,46 @@ public class ReportController {
         return new ResponseEntity<>(reportService.generateReport(request), HttpStatus.CREATED);
     }
 
+    /**
+     * Renders a report without saving it; the text is streamed as it is produced
+     */
+    @PostMapping("/preview")
+    @PreAuthorize("hasAnyRole('ADMIN', 'STAFF')")
+    public ResponseEntity<StreamingResponseBody> previewReport(@Valid @RequestBody ReportGenerationRequestDTO request) {
+        log.info("Previewing report for case ID: {}, type: {}", request.getCaseId(), request.getReportType());
+        StreamingResponseBody body = outputStream -> {
+            Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+            reportService.renderReport(request, writer);
+            writer.flush();
+        };
+        return ResponseEntity.ok()
+                .contentType(new MediaType(MediaType.TEXT_PLAIN, StandardCharsets.UTF_8))
+                .body(body);
+    }
+
+    @PostMapping("/jobs")
+    @PreAuthorize("hasAnyRole('ADMIN', 'STAFF')")
+    public ResponseEntity<ReportJobDTO> submitReportJob(@Valid @RequestBody ReportGenerationRequestDTO request) {
+        log.info("Queueing report for case ID: {}, type: {}", request.getCaseId(), request.getReportType());
+        ReportJobDTO job = reportJobService.submitJob(request);
+        return ResponseEntity.accepted()
+                .location(URI.create("/api/reports/jobs/" + job.getJobId()))
+                .body(job);
+    }
+
+    @GetMapping("/jobs/{jobId}")
+    @PreAuthorize("hasAnyRole('ADMIN', 'STAFF')")
+    public ResponseEntity<ReportJobDTO> getReportJob(@PathVariable Long jobId) {
+        return ResponseEntity.ok(reportJobService.getJob(jobId));
+    }
+
+    @GetMapping("/jobs/{jobId}/report")
+    @PreAuthorize("hasAnyRole('ADMIN', 'STAFF')")
+    public ResponseEntity<ReportResultDTO> getReportJobResult(@PathVariable Long jobId) {
+        log.info("Fetching report of job: {}", jobId);
+        return ResponseEntity.ok(reportJobService.getJobReport(jobId));
+    }
+
 //    @PostMapping
 //    @PreAuthorize("hasAnyRole('ADMIN', 'STAFF')")
 //    public ResponseEntity<ReportDTO> createReport(@Valid @RequestBody ReportDTO reportDTO) {
@@ -49,6 +126,25 @@ public class ReportController {
         return ResponseEntity.ok(reportService.getReportById(id));
     }
 
+    /**
+     * Streams a report as a paginated PDF. The ETag changes with the report content,
+     * so unchanged reports are answered with 304.
+     */
+    @GetMapping("/{id}/pdf")
+    @PreAuthorize("hasAnyRole('ADMIN', 'STAFF')")
+    public ResponseEntity<StreamingResponseBody> getReportPdf(@PathVariable Long id, WebRequest webRequest) {
+        String version = reportService.getReportPdfVersion(id);
+        if (webRequest.checkNotModified("\"" + version + "\"")) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).build();
+        }
+        log.info("Rendering PDF of report: {}", id);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_PDF)
+                .cacheControl(CacheControl.noCache().cachePrivate())
+                .header(HttpHeaders.CONTENT_DISPOSITION, "inline; filename=\"report-" + id + ".pdf\"")
+                .body(outputStream -> reportService.writeReportPdf(id, outputStream));
+    }
+
     @GetMapping("/case/{caseId}")
     @PreAuthorize("hasAnyRole('ADMIN', 'STAFF')")
     public ResponseEntity<List<ReportResultDTO>> getReportsByCase(@PathVariable Long caseId) {
@@ -56,6 +152,25 @@ public class ReportController {
         return ResponseEntity.ok(reportService.getReportsByCase(caseId));
     }
 
+    @GetMapping("/case/{caseId}/monthly-progress")
+    @PreAuthorize("hasAnyRole('ADMIN', 'STAFF')")
+    public ResponseEntity<ReportResultDTO> getMonthlyProgressReport(
+            @PathVariable Long caseId,
+            @RequestParam @DateTimeFormat(pattern = "yyyy-MM") YearMonth month) {
+        log.info("Fetching {} progress report for case: {}", month, caseId);
+        return ResponseEntity.ok(reportService.getMonthlyProgressReport(caseId, month));
+    }
+
+    @PostMapping("/progress/pregenerate")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Void> pregenerateProgressReports(
+            @RequestParam @DateTimeFormat(pattern = "yyyy-MM") YearMonth month) {
+        log.info("Pre-generating progress reports for {}", month);
+        // Runs in the background and logs its result; a run already in progress is rejected
+        progressReportPregenerationService.pregenerate(month);
+        return ResponseEntity.accepted().build();
+    }
+
     @GetMapping("/search")
     @PreAuthorize("hasAnyRole('ADMIN', 'STAFF')")
     public ResponseEntity<Page<ReportResultDTO>> searchReports(
@@ -71,6 +186,37 @@ public class ReportController {
         return ResponseEntity.ok(reportService.getReportsByFilters(caseId, reportType, startDate, endDate, pageable));
     }
 
+    @GetMapping("/search/seek")
+    @PreAuthorize("hasAnyRole('ADMIN', 'STAFF')")
+    public ResponseEntity<ReportSliceDTO> searchReportsAfter(
+            @RequestParam(required = false) Long caseId,
+            @RequestParam(required = false) String reportType,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate afterDate,
+            @RequestParam(required = false) Long afterId,
+            @RequestParam(defaultValue = "20") int size) {
+
+        log.info("Seeking reports with filters - caseId: {}, type: {}, dateRange: {} to {}, after: {}/{}",
+                caseId, reportType, startDate, endDate, afterDate, afterId);
+
+        int sliceSize = Math.max(1, Math.min(size, MAX_SLICE_SIZE));
+        return ResponseEntity.ok(reportService.getReportsAfter(
+                caseId, reportType, startDate, endDate, afterDate, afterId, sliceSize));
+    }
+
+    @GetMapping("/attendance")
+    @PreAuthorize("hasAnyRole('ADMIN', 'STAFF')")
+    public ResponseEntity<AttendanceReportDTO> getAttendanceReport(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            @RequestParam(required = false) Long caseId,
+            @RequestParam(required = false) Long staffId) {
+        log.info("Fetching attendance report from {} to {} - caseId: {}, staffId: {}",
+                startDate, endDate, caseId, staffId);
+        return ResponseEntity.ok(attendanceReportService.getAttendanceReport(startDate, endDate, caseId, staffId));
+    }
+
     @PutMapping("/{id}")
     @PreAuthorize("hasAnyRole('ADMIN', 'STAFF')")
     public ResponseEntity<ReportResultDTO> updateReport(@PathVariable Long id, @Valid @RequestBody ReportDTO reportDTO) {
@@ -88,8 +234,14 @@ public class ReportController {
 
     @GetMapping("/cases/{caseId}/registration-form")
     @PreAuthorize("hasAnyRole('ADMIN', 'STAFF')")
-    public ResponseEntity<byte[]> generateRegistrationForm(@PathVariable Long caseId) {
-        byte[] pdfContent = reportService.generateRegistrationForm(caseId);
+    public ResponseEntity<byte[]> generateRegistrationForm(
+            @PathVariable Long caseId,
+            @RequestParam(defaultValue = "EDITABLE") FormOutputMode mode,
+            WebRequest webRequest) {
+        RenderedPdf form = reportService.generateRegistrationForm(caseId, mode);
+        if (webRequest.checkNotModified("\"" + form.getVersion() + "\"")) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).build();
+        }
 
         HttpHeaders headers = new HttpHeaders();
         headers.setContentType(MediaType.APPLICATION_PDF);
@@ -97,7 +249,55 @@ public class ReportController {
                 .builder("attachment")
                 .filename("registration-form.pdf")
                 .build());
+        // Replaces the security default of no-store so browsers keep the copy and revalidate with the ETag
+        headers.setCacheControl(CacheControl.noCache().cachePrivate());
+
+        return new ResponseEntity<>(form.getContent(), headers, HttpStatus.OK);
+    }
+
+    @GetMapping("/cases/{caseId}/registration-form/render-stats")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<List<FormRenderStatsDTO>> compareRegistrationFormModes(@PathVariable Long caseId) {
+        log.info("Comparing registration form output modes for case: {}", caseId);
+        return ResponseEntity.ok(reportService.compareRegistrationFormModes(caseId));
+    }
+
+    @PostMapping("/registration-forms/batch")
+    @PreAuthorize("hasAnyRole('ADMIN', 'STAFF')")
+    public ResponseEntity<StreamingResponseBody> generateRegistrationForms(
+            @RequestBody RegistrationFormBatchRequestDTO request) {
+        BatchOutputFormat format = request.getFormat() == null ? BatchOutputFormat.PDF : request.getFormat();
+        log.info("Generating registration forms in batch as {}", format);
+
+        // Forms are rendered before the response starts so the counts can go in the headers
+        RegistrationFormBatch batch = registrationFormBatchService.renderForms(request);
+        HttpHeaders headers = new HttpHeaders();
+        headers.set("X-Forms-Generated", String.valueOf(batch.getForms().size()));
+        headers.set("X-Forms-Failed", String.valueOf(batch.getFailedCaseIds().size()));
+        headers.set("X-Forms-Render-Time-Ms", String.valueOf(batch.getRenderMillis()));
+        headers.set("X-Forms-Per-Second", String.format(Locale.ROOT, "%.1f", batch.getFormsPerSecond()));
+        if (!batch.getFailedCaseIds().isEmpty()) {
+            headers.set("X-Failed-Case-Ids", batch.getFailedCaseIds().stream()
+                    .map(String::valueOf)
+                    .collect(Collectors.joining(",")));
+        }
+
+        boolean zip = format == BatchOutputFormat.ZIP;
+        headers.setContentType(zip ? MediaType.parseMediaType("application/zip") : MediaType.APPLICATION_PDF);
+        headers.setContentDisposition(ContentDisposition
+                .builder("attachment")
+                .filename(zip ? "registration-forms.zip" : "registration-forms.pdf")
+                .build());
 
-        return new ResponseEntity<>(pdfContent, headers, HttpStatus.OK);
+        StreamingResponseBody body = outputStream -> {
+            try (batch) {
+                if (zip) {
+                    registrationFormBatchService.writeZip(batch, outputStream);
+                } else {
+                    registrationFormBatchService.writeMergedPdf(batch, outputStream);
+                }
+            }
+        };
+        return new ResponseEntity<>(body, headers, HttpStatus.OK);
     }
 }
\ No newline at end of file
@@ -1,30 +1,38 @@
 package com.novavista.binaa.center.controllers;
 
 import com.novavista.binaa.center.dto.request.SessionDTO;
+import com.novavista.binaa.center.dto.request.SessionSeriesDTO;
 import com.novavista.binaa.center.dto.response.SessionResponseDTO;
+import com.novavista.binaa.center.dto.response.SessionSeriesResponseDTO;
+import com.novavista.binaa.center.dto.response.SessionStatsDTO;
+import com.novavista.binaa.center.services.SessionRollupService;
 import com.novavista.binaa.center.services.SessionService;
 import jakarta.validation.Valid;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.List;
-import java.util.Map;
 
 @RestController
 @RequestMapping("/api/sessions")
 @Slf4j
 public class SessionController {
     private final SessionService sessionService;
+    private final SessionRollupService sessionRollupService;
 
     @Autowired
-    public SessionController(SessionService sessionService) {
+    public SessionController(SessionService sessionService, SessionRollupService sessionRollupService) {
         this.sessionService = sessionService;
+        this.sessionRollupService = sessionRollupService;
     }
 
     @PostMapping
@@ -34,6 +42,13 @@ public class SessionController {
         return new ResponseEntity<>(sessionService.createSession(sessionDTO), HttpStatus.CREATED);
     }
 
+    @PostMapping("/series")
+    @PreAuthorize("hasAnyRole('ADMIN', 'STAFF')")
+    public ResponseEntity<SessionSeriesResponseDTO> createSessionSeries(@RequestBody SessionSeriesDTO seriesDTO) {
+        log.info("Creating session series for case ID: {}", seriesDTO.getCaseId());
+        return new ResponseEntity<>(sessionService.createSessionSeries(seriesDTO), HttpStatus.CREATED);
+    }
+
     @GetMapping("/{id}")
     @PreAuthorize("hasAnyRole('ADMIN', 'STAFF')")
     public ResponseEntity<SessionDTO> getSessionById(@PathVariable Long id) {
@@ -54,6 +69,36 @@ public class SessionController {
         log.info("Fetching all sessions");
         return ResponseEntity.ok(sessionService.getAllSessions());
     }
+    /*
+     * Streaming variants of the listings: rows are written as they are read, so
+     * response size does not drive memory use
+     */
+    @GetMapping("/stream")
+    @PreAuthorize("hasAnyRole('ADMIN', 'STAFF')")
+    public ResponseEntity<StreamingResponseBody> streamAllSessions() {
+        return streamingJson(out -> sessionService.writeAllSessions(out));
+    }
+
+    @GetMapping("/case/{caseId}/stream")
+    @PreAuthorize("hasAnyRole('ADMIN', 'STAFF')")
+    public ResponseEntity<StreamingResponseBody> streamSessionsByCase(@PathVariable Long caseId) {
+        return streamingJson(out -> sessionService.writeSessionsByCase(caseId, out));
+    }
+
+    @GetMapping("/dateRange/stream")
+    @PreAuthorize("hasAnyRole('ADMIN', 'STAFF')")
+    public ResponseEntity<StreamingResponseBody> streamSessionsByDateRange(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime start,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime end) {
+        return streamingJson(out -> sessionService.writeSessionsByDateRange(start, end, out));
+    }
+
+    private ResponseEntity<StreamingResponseBody> streamingJson(StreamingResponseBody body) {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(body);
+    }
+
     @GetMapping("/dateRange")
     @PreAuthorize("hasAnyRole('ADMIN', 'STAFF')")
     public ResponseEntity<List<SessionResponseDTO>> getSessionsByDateRange(
@@ -80,18 +125,28 @@ public class SessionController {
 
     @GetMapping("/stats")
     @PreAuthorize("hasAnyRole('ADMIN', 'STAFF')")
-    public ResponseEntity<Map<String, Object>> getSessionStats(
+    public ResponseEntity<SessionStatsDTO> getSessionStats(
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime start,
             @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime end) {
         log.info("Fetching session statistics between {} and {}", start, end);
         return ResponseEntity.ok(sessionService.getSessionStats(start, end));
     }
+
+    @PostMapping("/rollup/rebuild")
+    @PreAuthorize("hasRole('ADMIN')")
+    public ResponseEntity<Void> rebuildSessionRollup(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate) {
+        log.info("Rebuilding session rollup between {} and {}", startDate, endDate);
+        // Runs in the background and logs its result; a rebuild already in progress is rejected
+        sessionRollupService.rebuild(startDate, endDate);
+        return ResponseEntity.accepted().build();
+    }
+
     @GetMapping("/upcoming")
     @PreAuthorize("hasAnyRole('ADMIN', 'STAFF')")
-    public ResponseEntity<List<SessionResponseDTO>> getUpcomingSessions() {
-        log.info("Fetching upcoming sessions");
-        LocalDateTime now = LocalDateTime.now();
-        LocalDateTime nextWeek = now.plusDays(7);
-        return ResponseEntity.ok(sessionService.getUpcomingSessions());
+    public ResponseEntity<List<SessionResponseDTO>> getUpcomingSessions(@RequestParam(required = false) Long staffId) {
+        log.info("Fetching upcoming sessions for staff ID: {}", staffId);
+        return ResponseEntity.ok(sessionService.getUpcomingSessions(staffId));
     }
 }
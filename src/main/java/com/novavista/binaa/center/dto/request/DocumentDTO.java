@@ -16,8 +16,25 @@ public class DocumentDTO {
     private DocumentType type;
     private String fileName;
     private String contentType;
+    private String contentHash;
+    private String previewHash;
     private byte[] fileData;
     private Long fileSize;
     private LocalDate uploadDate;
     private Long uploadedBy;
+
+    public DocumentDTO(
+            Long documentId,
+            Long caseId,
+            DocumentType type,
+            String fileName,
+            String contentType,
+            String contentHash,
+            String previewHash,
+            Long fileSize,
+            LocalDate uploadDate,
+            Long uploadedBy
+    ) {
+        this(documentId, caseId, type, fileName, contentType, contentHash, previewHash, null, fileSize, uploadDate, uploadedBy);
+    }
 }
\ No newline at end of file
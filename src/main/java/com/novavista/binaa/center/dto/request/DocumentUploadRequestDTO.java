@@ -0,0 +1,26 @@
+package com.novavista.binaa.center.dto.request;
+
+import com.novavista.binaa.center.enums.DocumentType;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DocumentUploadRequestDTO {
+    @NotNull
+    private Long caseId;
+    @NotNull
+    private DocumentType type;
+    @NotBlank
+    private String fileName;
+    private String contentType;
+    @NotNull
+    @Positive
+    private Long totalSize;
+    private Integer chunkSize;
+}
@@ -0,0 +1,20 @@
+package com.novavista.binaa.center.dto.request;
+
+import com.novavista.binaa.center.enums.BatchOutputFormat;
+import com.novavista.binaa.center.enums.CaseStatus;
+import com.novavista.binaa.center.enums.FormOutputMode;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RegistrationFormBatchRequestDTO {
+    private List<Long> caseIds; // either explicit cases...
+    private CaseStatus status;  // ...or every case with this status
+    private BatchOutputFormat format = BatchOutputFormat.PDF;
+    private FormOutputMode mode = FormOutputMode.EDITABLE;
+}
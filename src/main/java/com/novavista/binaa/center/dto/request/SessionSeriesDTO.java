@@ -0,0 +1,26 @@
+package com.novavista.binaa.center.dto.request;
+
+import com.novavista.binaa.center.enums.AttendanceStatus;
+import com.novavista.binaa.center.enums.SessionRecurrence;
+import com.novavista.binaa.center.enums.SessionType;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SessionSeriesDTO {
+    private Long caseId;
+    private Long staffId;
+    private String purpose;
+    private String notes;
+    private SessionType sessionType;
+    private AttendanceStatus attendanceStatus;
+    private Integer duration;
+    private LocalDateTime firstSessionDate;
+    private SessionRecurrence recurrence = SessionRecurrence.WEEKLY;
+    private Integer occurrences; // number of sessions in the series
+}
@@ -0,0 +1,18 @@
+package com.novavista.binaa.center.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AttendanceBreakdownDTO {
+    private Long groupId; // case ID, staff ID or ISO year-week (e.g. 202614)
+    private String label;
+    private Long totalSessions;
+    private Long presentCount;
+    private Long absentCount;
+    private Double attendanceRate; // percent of sessions attended
+    private Long totalMinutes;
+}
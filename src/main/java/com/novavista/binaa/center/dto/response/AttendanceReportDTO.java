@@ -0,0 +1,26 @@
+package com.novavista.binaa.center.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AttendanceReportDTO {
+    private LocalDate startDate;
+    private LocalDate endDate;
+    private Long caseId;
+    private Long staffId;
+    private Long totalSessions;
+    private Long presentCount;
+    private Long absentCount;
+    private Double attendanceRate;
+    private Long totalMinutes;
+    private List<AttendanceBreakdownDTO> byCase;
+    private List<AttendanceBreakdownDTO> byStaff;
+    private List<AttendanceBreakdownDTO> byWeek;
+}
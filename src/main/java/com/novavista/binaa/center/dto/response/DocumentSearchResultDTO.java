@@ -0,0 +1,13 @@
+package com.novavista.binaa.center.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DocumentSearchResultDTO {
+    private Long documentId;
+    private Double score;
+}
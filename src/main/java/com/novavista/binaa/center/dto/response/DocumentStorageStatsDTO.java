@@ -0,0 +1,20 @@
+package com.novavista.binaa.center.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DocumentStorageStatsDTO {
+    private Long documentCount;
+    private Long originalBytes;
+    private Long storedBytes;
+    private Long compressionSavedBytes;
+    private Double compressionSavedPercent;
+    private Long uniqueStoredBytes; // after identical uploads share one copy
+    private List<DocumentStorageUsageDTO> byCodec;
+}
@@ -0,0 +1,16 @@
+package com.novavista.binaa.center.dto.response;
+
+import com.novavista.binaa.center.enums.DocumentCodec;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DocumentStorageUsageDTO {
+    private DocumentCodec codec;
+    private Long documentCount;
+    private Long originalBytes;
+    private Long storedBytes;
+}
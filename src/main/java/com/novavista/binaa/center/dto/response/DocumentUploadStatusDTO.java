@@ -0,0 +1,28 @@
+package com.novavista.binaa.center.dto.response;
+
+import com.novavista.binaa.center.enums.DocumentType;
+import com.novavista.binaa.center.enums.UploadStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DocumentUploadStatusDTO {
+    private String uploadId;
+    private Long caseId;
+    private DocumentType type;
+    private String fileName;
+    private String contentType;
+    private Long totalSize;
+    private Integer chunkSize;
+    private Integer totalChunks;
+    private List<Integer> receivedChunks;
+    private UploadStatus status;
+    private LocalDateTime expiresAt;
+    private Long documentId;
+}
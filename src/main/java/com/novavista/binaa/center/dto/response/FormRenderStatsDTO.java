@@ -0,0 +1,16 @@
+package com.novavista.binaa.center.dto.response;
+
+import com.novavista.binaa.center.enums.FormOutputMode;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class FormRenderStatsDTO {
+    private FormOutputMode mode;
+    private Long sizeBytes;
+    private Double averageRenderMillis;
+    private Integer runs;
+}
@@ -0,0 +1,16 @@
+package com.novavista.binaa.center.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProgressPregenerationResultDTO {
+    private String reportPeriod;
+    private Integer caseCount;
+    private Integer generatedCount;
+    private Integer failedCount;
+    private Long elapsedMillis;
+}
@@ -0,0 +1,26 @@
+package com.novavista.binaa.center.dto.response;
+
+import com.novavista.binaa.center.enums.ReportJobStatus;
+import com.novavista.binaa.center.enums.ReportType;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReportJobDTO {
+    private Long jobId;
+    private Long caseId;
+    private ReportType reportType;
+    private ReportJobStatus status;
+    private Long reportId;
+    private String errorMessage;
+    private Integer attempts;
+    private LocalDateTime createdAt;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+    private boolean deduplicated; // an identical request was already queued or running
+}
@@ -16,6 +16,7 @@ public class ReportResultDTO {
     private String reportType;
     private String reportContent;
     private LocalDate createdDate;
+    private String reportPeriod;
     private String fileName;
     private String contentType;
     private Long fileSize;
@@ -0,0 +1,19 @@
+package com.novavista.binaa.center.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReportSliceDTO {
+    private List<ReportResultDTO> content;
+    private boolean hasMore;
+    // Pass back as afterDate/afterId to read the next slice
+    private LocalDate nextAfterDate;
+    private Long nextAfterId;
+}
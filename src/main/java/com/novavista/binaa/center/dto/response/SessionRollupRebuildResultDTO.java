@@ -0,0 +1,19 @@
+package com.novavista.binaa.center.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SessionRollupRebuildResultDTO {
+    private LocalDate startDate;
+    private LocalDate endDate;
+    private Integer chunkCount;
+    private Integer failedChunkCount;
+    private Long rowCount;
+    private Long elapsedMillis;
+}
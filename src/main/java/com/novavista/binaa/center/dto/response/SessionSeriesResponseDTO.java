@@ -0,0 +1,17 @@
+package com.novavista.binaa.center.dto.response;
+
+import com.novavista.binaa.center.enums.SessionRecurrence;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SessionSeriesResponseDTO {
+    private String seriesId;
+    private SessionRecurrence recurrence;
+    private List<SessionResponseDTO> sessions;
+}
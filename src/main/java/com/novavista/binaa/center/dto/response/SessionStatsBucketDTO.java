@@ -0,0 +1,18 @@
+package com.novavista.binaa.center.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SessionStatsBucketDTO {
+    private String key; // ISO date, staff ID, session type or attendance status
+    private String label;
+    private Long totalSessions;
+    private Long presentSessions;
+    private Long absentSessions;
+    private Long totalMinutes;
+    private Double averageDuration; // minutes per session
+}
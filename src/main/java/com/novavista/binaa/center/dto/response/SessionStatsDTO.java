@@ -0,0 +1,26 @@
+package com.novavista.binaa.center.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SessionStatsDTO {
+    private LocalDateTime start;
+    private LocalDateTime end;
+    private Long totalSessions;
+    private Long presentSessions;
+    private Long cancelledSessions; // sessions marked absent
+    private Double attendanceRate; // percent of all sessions attended
+    private Long totalMinutes;
+    private Double averageDuration;
+    private List<SessionStatsBucketDTO> byDay;
+    private List<SessionStatsBucketDTO> byStaff;
+    private List<SessionStatsBucketDTO> bySessionType;
+    private List<SessionStatsBucketDTO> byAttendanceStatus;
+}
@@ -0,0 +1,25 @@
+package com.novavista.binaa.center.dto.response;
+
+import com.novavista.binaa.center.enums.AttendanceStatus;
+import com.novavista.binaa.center.enums.SessionType;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SessionSummaryDTO {
+    private Long sessionId;
+    private Long caseId;
+    private LocalDateTime sessionDate;
+    private String purpose;
+    private String staffName;
+    private SessionType sessionType;
+    private AttendanceStatus attendanceStatus;
+    private Integer duration;
+    private String goalsAchieved;
+    private String nextSessionPlan;
+}
@@ -1,10 +1,13 @@
 package com.novavista.binaa.center.entity;
 
+import com.novavista.binaa.center.enums.DocumentCodec;
 import com.novavista.binaa.center.enums.DocumentType;
 import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
 import lombok.NoArgsConstructor;
+import lombok.ToString;
 
 import java.time.LocalDate;
 
@@ -28,11 +31,30 @@ public class Document {
     private String fileName;
     private String contentType;
 
+    @Column(length = 64)
+    private String contentHash; // SHA-256 key in DocumentStorage; null while still held in fileData
+
+    @Column(length = 64)
+    private String previewHash; // storage key of the rendered thumbnail; null until generated
+
+    @Column(length = 64)
+    private String previewFailedHash; // content hash that could not be rendered; not retried until it changes
+
     @Lob
+    @Basic(fetch = FetchType.LAZY) // only honoured with bytecode enhancement, see pom.xml
     @Column(length = 16777215) // MEDIUMBLOB - for files up to 16MB
+    @ToString.Exclude
+    @EqualsAndHashCode.Exclude
     private byte[] fileData;
 
-    private Long fileSize;
+    private Long fileSize; // original size, as served to clients
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private DocumentCodec codec = DocumentCodec.NONE;
+
+    private Long storedSize; // bytes held in DocumentStorage after encoding
+
     private LocalDate uploadDate;
 
     @ManyToOne
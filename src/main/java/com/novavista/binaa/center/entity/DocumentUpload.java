@@ -0,0 +1,53 @@
+package com.novavista.binaa.center.entity;
+
+import com.novavista.binaa.center.enums.DocumentType;
+import com.novavista.binaa.center.enums.UploadStatus;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "document_uploads")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class DocumentUpload {
+    @Id
+    @Column(length = 36)
+    private String uploadId;
+
+    @ManyToOne
+    @JoinColumn(name = "case_id", nullable = false)
+    private Case caseInfo;
+
+    @Enumerated(EnumType.STRING)
+    private DocumentType type;
+
+    private String fileName;
+    private String contentType;
+
+    @Column(nullable = false)
+    private Long totalSize;
+
+    @Column(nullable = false)
+    private Integer chunkSize;
+
+    @Column(nullable = false)
+    private Integer totalChunks;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private UploadStatus status;
+
+    @ManyToOne
+    @JoinColumn(name = "created_by")
+    private User createdBy;
+
+    private LocalDateTime createdAt;
+    private LocalDateTime expiresAt;
+
+    private Long documentId;
+}
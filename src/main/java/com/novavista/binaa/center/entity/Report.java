@@ -27,7 +27,7 @@ public class Report {
     @JoinColumn(name = "session_id")
     private Session session;
 
-    @Column(columnDefinition = "TEXT", nullable = false)
+    @Column(columnDefinition = "MEDIUMTEXT", nullable = false)
     private String reportContent;
 
     @Column(nullable = false)
@@ -43,4 +43,8 @@ public class Report {
 
     @Column(length = 50)
     private String templateId;
+
+    // yyyy-MM of reports generated by the nightly batch; null for reports generated on request
+    @Column(length = 7)
+    private String reportPeriod;
 }
\ No newline at end of file
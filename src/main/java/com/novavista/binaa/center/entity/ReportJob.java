@@ -0,0 +1,73 @@
+package com.novavista.binaa.center.entity;
+
+import com.novavista.binaa.center.enums.ReportJobStatus;
+import com.novavista.binaa.center.enums.ReportType;
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+@Entity
+@Table(name = "report_jobs")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReportJob {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long jobId;
+
+    @Column(nullable = false, length = 64)
+    private String requestHash;
+
+    @Column(length = 64, unique = true)
+    private String activeRequestHash; // equals requestHash while QUEUED or RUNNING, so only one such job can exist
+
+    @ManyToOne
+    @JoinColumn(name = "case_id", nullable = false)
+    private Case caseInfo;
+
+    @ManyToOne
+    @JoinColumn(name = "session_id")
+    private Session session;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private ReportType reportType;
+
+    private LocalDate startDate;
+    private LocalDate endDate;
+
+    @Column(length = 50)
+    private String templateId;
+
+    @Column(columnDefinition = "TEXT")
+    private String parameters; // JSON
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private ReportJobStatus status;
+
+    @Column(nullable = false)
+    private Integer attempts = 0;
+
+    @Column(length = 1000)
+    private String errorMessage;
+
+    @ManyToOne
+    @JoinColumn(name = "report_id")
+    private Report report;
+
+    @ManyToOne
+    @JoinColumn(name = "created_by")
+    private User createdBy;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+}
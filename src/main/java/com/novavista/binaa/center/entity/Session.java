@@ -48,4 +48,7 @@ public class Session {
     private String nextSessionPlan;
 
     private String attachments;
+
+    @Column(length = 36)
+    private String seriesId;
 }
\ No newline at end of file
@@ -0,0 +1,6 @@
+package com.novavista.binaa.center.enums;
+
+public enum FormOutputMode {
+    EDITABLE,  // fields stay fillable; the viewer lays out the text
+    FLATTENED  // text is laid out on the server and printed into the page
+}
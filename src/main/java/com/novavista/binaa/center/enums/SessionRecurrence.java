@@ -0,0 +1,15 @@
+package com.novavista.binaa.center.enums;
+
+public enum SessionRecurrence {
+    WEEKLY(1), BIWEEKLY(2);
+
+    private final int intervalWeeks;
+
+    SessionRecurrence(int intervalWeeks) {
+        this.intervalWeeks = intervalWeeks;
+    }
+
+    public int getIntervalWeeks() {
+        return intervalWeeks;
+    }
+}
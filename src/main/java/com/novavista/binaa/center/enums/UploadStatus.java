@@ -0,0 +1,5 @@
+package com.novavista.binaa.center.enums;
+
+public enum UploadStatus {
+    IN_PROGRESS, COMPLETED
+}
@@ -0,0 +1,15 @@
+package com.novavista.binaa.center.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Published when a document is deleted; delivered after the transaction commits.
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class DocumentDeletedEvent {
+    private final Long documentId;
+}
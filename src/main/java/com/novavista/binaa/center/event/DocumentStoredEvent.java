@@ -0,0 +1,18 @@
+package com.novavista.binaa.center.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Published when new content has been written for a document. Listeners
+ * receive it only once the surrounding transaction has committed.
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class DocumentStoredEvent {
+    private final Long documentId;
+    private final String contentHash;
+    private final String contentType;
+}
@@ -0,0 +1,15 @@
+package com.novavista.binaa.center.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Published when a report job is queued, so workers can pick it up without waiting for the next poll.
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public class ReportJobQueuedEvent {
+    private final Long jobId;
+}
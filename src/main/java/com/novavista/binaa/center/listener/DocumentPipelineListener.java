@@ -0,0 +1,87 @@
+package com.novavista.binaa.center.listener;
+
+import com.novavista.binaa.center.event.DocumentDeletedEvent;
+import com.novavista.binaa.center.event.DocumentStoredEvent;
+import com.novavista.binaa.center.services.DocumentPreviewService;
+import com.novavista.binaa.center.services.DocumentSearchService;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * Runs post-upload processing of documents on a small dedicated pool, so a burst
+ * of uploads queues up here instead of competing with request threads.
+ * The pool is owned by this listener rather than exposed as an Executor bean,
+ * which would replace Spring Boot's default executor for MVC async requests.
+ */
+@Component
+@Slf4j
+public class DocumentPipelineListener {
+    private final DocumentPreviewService documentPreviewService;
+    private final DocumentSearchService documentSearchService;
+    private final ThreadPoolTaskExecutor executor;
+
+    @Autowired
+    public DocumentPipelineListener(DocumentPreviewService documentPreviewService,
+                                    DocumentSearchService documentSearchService,
+                                    @Value("${app.documents.pipeline.threads:2}") int threads,
+                                    @Value("${app.documents.pipeline.queue-capacity:200}") int queueCapacity) {
+        this.documentPreviewService = documentPreviewService;
+        this.documentSearchService = documentSearchService;
+        this.executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("DocumentPipeline-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        executor.initialize();
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void handleDocumentStored(DocumentStoredEvent event) {
+        log.debug("Queueing post-upload processing: {}", event);
+        try {
+            executor.execute(() -> documentPreviewService.generatePreview(event.getDocumentId()));
+        } catch (TaskRejectedException e) {
+            // Rendering is too expensive for the request thread; the startup backfill renders it
+            log.warn("Pipeline queue full, skipping preview of document {}", event.getDocumentId());
+        }
+        try {
+            executor.execute(() -> documentSearchService.indexDocument(event.getDocumentId()));
+        } catch (TaskRejectedException e) {
+            // Indexing is cheap enough to slow the publishing thread down rather than lose it
+            documentSearchService.indexDocument(event.getDocumentId());
+        }
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT)
+    public void handleDocumentDeleted(DocumentDeletedEvent event) {
+        documentSearchService.removeDocument(event.getDocumentId());
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void indexMissingDocuments() {
+        // Catches up on uploads made while the index was not being saved, e.g. after a crash
+        executor.execute(documentSearchService::indexMissingDocuments);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void generateMissingPreviews() {
+        // Documents uploaded before previews existed, or while rendering was interrupted
+        executor.execute(documentPreviewService::generateMissingPreviews);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
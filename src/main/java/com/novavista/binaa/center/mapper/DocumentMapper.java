@@ -32,6 +32,23 @@ public class DocumentMapper implements EntityMapper<DocumentDTO, Document> {
         return mapper.map(entity, DocumentDTO.class);
     }
 
+    /**
+     * Maps a document without touching its lazily loaded file data
+     */
+    public DocumentDTO toMetadataDto(Document entity) {
+        return new DocumentDTO(
+                entity.getDocumentId(),
+                entity.getCaseInfo() == null ? null : entity.getCaseInfo().getCaseId(),
+                entity.getType(),
+                entity.getFileName(),
+                entity.getContentType(),
+                entity.getContentHash(),
+                entity.getPreviewHash(),
+                entity.getFileSize(),
+                entity.getUploadDate(),
+                entity.getUploadedBy() == null ? null : entity.getUploadedBy().getUserId());
+    }
+
     @Override
     public Document toEntity(DocumentDTO dto) {
         return mapper.map(dto, Document.class);
@@ -4,12 +4,33 @@ import com.novavista.binaa.center.entity.Assessment;
 import com.novavista.binaa.center.entity.Case;
 import com.novavista.binaa.center.enums.AssessmentStatus;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface AssessmentRepository extends JpaRepository<Assessment, Long> {
     List<Assessment> findByCaseInfo(Case caseInfo);
     List<Assessment> findByStatus(AssessmentStatus status);
+
+    @Query("SELECT a FROM Assessment a " +
+            "JOIN FETCH a.caseInfo c " +
+            "LEFT JOIN FETCH a.assessor " +
+            "WHERE c.caseId IN :caseIds AND a.assessmentDate BETWEEN :startDate AND :endDate " +
+            "ORDER BY c.caseId, a.assessmentDate")
+    List<Assessment> findByCaseIdsAndDateRange(@Param("caseIds") Collection<Long> caseIds,
+                                               @Param("startDate") LocalDate startDate,
+                                               @Param("endDate") LocalDate endDate);
+
+    @Query("SELECT a FROM Assessment a " +
+            "LEFT JOIN FETCH a.assessor " +
+            "WHERE a.caseInfo.caseId = :caseId AND a.assessmentDate BETWEEN :startDate AND :endDate " +
+            "ORDER BY a.assessmentDate")
+    List<Assessment> findByCaseIdAndDateRange(@Param("caseId") Long caseId,
+                                              @Param("startDate") LocalDate startDate,
+                                              @Param("endDate") LocalDate endDate);
 }
\ No newline at end of file
@@ -0,0 +1,161 @@
+package com.novavista.binaa.center.repository;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Attendance breakdowns by case, staff member and ISO week, read from the sessions
+ * table or, for whole days, from the daily session rollup. The case and staff
+ * filters are only appended when they are given, so MySQL can use the matching
+ * {@code (case_id, ...)} or {@code (staff_id, ...)} index instead of planning one
+ * query for every combination of filters.
+ */
+@Repository
+public class AttendanceAggregateRepository {
+    private static final String SESSIONS_BY_CASE = """
+            SELECT s.case_id AS group_id,
+                c.name AS label,
+                COUNT(*) AS total_sessions,
+                SUM(s.attendance_status = 'PRESENT') AS present_count,
+                SUM(s.attendance_status = 'ABSENT') AS absent_count,
+                COALESCE(SUM(s.duration), 0) AS total_minutes
+            FROM sessions s
+            LEFT JOIN cases c ON c.case_id = s.case_id
+            WHERE s.session_date >= ? AND s.session_date < ?
+            """;
+
+    private static final String SESSIONS_BY_STAFF = """
+            SELECT s.staff_id AS group_id,
+                st.name AS label,
+                COUNT(*) AS total_sessions,
+                SUM(s.attendance_status = 'PRESENT') AS present_count,
+                SUM(s.attendance_status = 'ABSENT') AS absent_count,
+                COALESCE(SUM(s.duration), 0) AS total_minutes
+            FROM sessions s
+            LEFT JOIN staff st ON st.staff_id = s.staff_id
+            WHERE s.session_date >= ? AND s.session_date < ?
+            """;
+
+    // ISO weeks; the label is the Monday the week starts on
+    private static final String SESSIONS_BY_WEEK = """
+            SELECT YEARWEEK(s.session_date, 3) AS group_id,
+                DATE_FORMAT(MIN(DATE(s.session_date) - INTERVAL WEEKDAY(s.session_date) DAY), '%Y-%m-%d') AS label,
+                COUNT(*) AS total_sessions,
+                SUM(s.attendance_status = 'PRESENT') AS present_count,
+                SUM(s.attendance_status = 'ABSENT') AS absent_count,
+                COALESCE(SUM(s.duration), 0) AS total_minutes
+            FROM sessions s
+            WHERE s.session_date >= ? AND s.session_date < ?
+            """;
+
+    private static final String ROLLUP_BY_CASE = """
+            SELECT NULLIF(r.case_id, 0) AS group_id,
+                c.name AS label,
+                SUM(r.session_count) AS total_sessions,
+                SUM(r.present_count) AS present_count,
+                SUM(r.absent_count) AS absent_count,
+                SUM(r.total_minutes) AS total_minutes
+            FROM session_daily_rollup r
+            LEFT JOIN cases c ON c.case_id = r.case_id
+            WHERE r.rollup_date BETWEEN ? AND ?
+            """;
+
+    private static final String ROLLUP_BY_STAFF = """
+            SELECT NULLIF(r.staff_id, 0) AS group_id,
+                st.name AS label,
+                SUM(r.session_count) AS total_sessions,
+                SUM(r.present_count) AS present_count,
+                SUM(r.absent_count) AS absent_count,
+                SUM(r.total_minutes) AS total_minutes
+            FROM session_daily_rollup r
+            LEFT JOIN staff st ON st.staff_id = r.staff_id
+            WHERE r.rollup_date BETWEEN ? AND ?
+            """;
+
+    private static final String ROLLUP_BY_WEEK = """
+            SELECT YEARWEEK(r.rollup_date, 3) AS group_id,
+                DATE_FORMAT(MIN(r.rollup_date - INTERVAL WEEKDAY(r.rollup_date) DAY), '%Y-%m-%d') AS label,
+                SUM(r.session_count) AS total_sessions,
+                SUM(r.present_count) AS present_count,
+                SUM(r.absent_count) AS absent_count,
+                SUM(r.total_minutes) AS total_minutes
+            FROM session_daily_rollup r
+            WHERE r.rollup_date BETWEEN ? AND ?
+            """;
+
+    private static final RowMapper<AttendanceAggregate> ROW_MAPPER = (rs, rowNum) -> new AttendanceAggregate(
+            rs.getObject("group_id", Long.class),
+            rs.getString("label"),
+            rs.getLong("total_sessions"),
+            rs.getLong("present_count"),
+            rs.getLong("absent_count"),
+            rs.getLong("total_minutes"));
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    public AttendanceAggregateRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public List<AttendanceAggregate> aggregateByCase(LocalDateTime start, LocalDateTime end, Long caseId, Long staffId) {
+        return query(SESSIONS_BY_CASE, "s", "GROUP BY s.case_id, c.name ORDER BY c.name", start, end, caseId, staffId);
+    }
+
+    public List<AttendanceAggregate> aggregateByStaff(LocalDateTime start, LocalDateTime end, Long caseId, Long staffId) {
+        return query(SESSIONS_BY_STAFF, "s", "GROUP BY s.staff_id, st.name ORDER BY st.name", start, end, caseId, staffId);
+    }
+
+    public List<AttendanceAggregate> aggregateByWeek(LocalDateTime start, LocalDateTime end, Long caseId, Long staffId) {
+        return query(SESSIONS_BY_WEEK, "s", "GROUP BY YEARWEEK(s.session_date, 3) ORDER BY group_id",
+                start, end, caseId, staffId);
+    }
+
+    public List<AttendanceAggregate> aggregateByCaseFromRollup(LocalDate startDate, LocalDate endDate,
+                                                               Long caseId, Long staffId) {
+        return query(ROLLUP_BY_CASE, "r", "GROUP BY r.case_id, c.name ORDER BY c.name",
+                startDate, endDate, caseId, staffId);
+    }
+
+    public List<AttendanceAggregate> aggregateByStaffFromRollup(LocalDate startDate, LocalDate endDate,
+                                                                Long caseId, Long staffId) {
+        return query(ROLLUP_BY_STAFF, "r", "GROUP BY r.staff_id, st.name ORDER BY st.name",
+                startDate, endDate, caseId, staffId);
+    }
+
+    public List<AttendanceAggregate> aggregateByWeekFromRollup(LocalDate startDate, LocalDate endDate,
+                                                               Long caseId, Long staffId) {
+        return query(ROLLUP_BY_WEEK, "r", "GROUP BY YEARWEEK(r.rollup_date, 3) ORDER BY group_id",
+                startDate, endDate, caseId, staffId);
+    }
+
+    private List<AttendanceAggregate> query(String select, String alias, String groupBy,
+                                            Object from, Object to, Long caseId, Long staffId) {
+        StringBuilder sql = new StringBuilder(select);
+        List<Object> args = new ArrayList<>(List.of(from, to));
+        if (caseId != null) {
+            sql.append("  AND ").append(alias).append(".case_id = ?\n");
+            args.add(caseId);
+        }
+        if (staffId != null) {
+            sql.append("  AND ").append(alias).append(".staff_id = ?\n");
+            args.add(staffId);
+        }
+        sql.append(groupBy);
+        return jdbcTemplate.query(sql.toString(), ROW_MAPPER, args.toArray());
+    }
+
+    /**
+     * One row of an attendance breakdown, read straight from the aggregate query
+     */
+    public record AttendanceAggregate(Long groupId, String label, long totalSessions,
+                                      long presentCount, long absentCount, long totalMinutes) {
+    }
+}
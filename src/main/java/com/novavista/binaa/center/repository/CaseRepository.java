@@ -5,6 +5,7 @@ import com.novavista.binaa.center.entity.Case;
 import com.novavista.binaa.center.enums.CaseStatus;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -12,6 +13,9 @@ import java.util.List;
 @Repository
 public interface CaseRepository extends JpaRepository<Case, Long> {
     List<Case> findByStatus(CaseStatus status);
+
+    @Query("SELECT c.caseId FROM Case c WHERE c.status = :status ORDER BY c.caseId")
+    List<Long> findIdsByStatus(@Param("status") CaseStatus status);
     List<Case> findByNameContainingIgnoreCase(String name);
     @Query("""
         SELECT new com.novavista.binaa.center.dto.lookup.CaseLookupDTO(
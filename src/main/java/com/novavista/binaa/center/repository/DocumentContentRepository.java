@@ -0,0 +1,154 @@
+package com.novavista.binaa.center.repository;
+
+import com.novavista.binaa.center.enums.DocumentCodec;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Reads the binary payload of a document without materializing it on the heap.
+ * The blob is fetched in fixed-size slices with {@code SUBSTRING}, so at most one
+ * slice is held in memory regardless of the file size. This trades database work
+ * for memory: MySQL reads the whole blob again for every slice, so copying a blob
+ * of n slices reads it n times on the server. Connector/J would hold the whole row
+ * on the heap when reading it in one pass, even with a streaming result set.
+ * Only documents not yet moved to {@code DocumentStorage} are served this way.
+ */
+@Repository
+@Slf4j
+public class DocumentContentRepository {
+    // Large enough that a 16 MB blob takes 16 slices, small enough to hold per request
+    static final int CHUNK_SIZE = 1024 * 1024;
+
+    private static final String CHUNK_QUERY =
+            "SELECT SUBSTRING(file_data, ?, ?) FROM documents WHERE document_id = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    public DocumentContentRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Copies the stored file data of a document to the given stream.
+     * @param documentId the document ID
+     * @param out the destination stream
+     * @return number of bytes written
+     */
+    public long copyFileData(Long documentId, OutputStream out) {
+        return copyFileData(documentId, out, 0, Long.MAX_VALUE);
+    }
+
+    /**
+     * Copies a byte range of the stored file data of a document to the given stream.
+     * @param documentId the document ID
+     * @param out the destination stream
+     * @param offset zero-based position of the first byte
+     * @param length maximum number of bytes to copy
+     * @return number of bytes written
+     */
+    public long copyFileData(Long documentId, OutputStream out, long offset, long length) {
+        Long written = jdbcTemplate.execute((ConnectionCallback<Long>) connection -> {
+            long total = 0;
+            try (PreparedStatement statement = connection.prepareStatement(CHUNK_QUERY)) {
+                while (total < length) {
+                    int sliceSize = (int) Math.min(CHUNK_SIZE, length - total);
+                    statement.setLong(1, offset + total + 1);
+                    statement.setInt(2, sliceSize);
+                    statement.setLong(3, documentId);
+
+                    byte[] chunk;
+                    try (ResultSet rs = statement.executeQuery()) {
+                        chunk = rs.next() ? rs.getBytes(1) : null;
+                    }
+                    if (chunk == null || chunk.length == 0) {
+                        break;
+                    }
+
+                    out.write(chunk);
+                    total += chunk.length;
+                    if (chunk.length < sliceSize) {
+                        break;
+                    }
+                }
+                out.flush();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return total;
+        });
+
+        log.debug("Streamed {} bytes for document ID: {}", written, documentId);
+        return written == null ? 0 : written;
+    }
+
+    /**
+     * Hands the stored file data of a document to a reader as a binary stream.
+     * The driver holds at most one row, so this is meant for background jobs only.
+     * @param documentId the document ID
+     * @param reader consumer of the stream
+     * @return the reader result, or empty if the document has no file data
+     */
+    public <T> Optional<T> readFileData(Long documentId, FileDataReader<T> reader) {
+        return jdbcTemplate.query(
+                "SELECT file_data FROM documents WHERE document_id = ? AND file_data IS NOT NULL",
+                rs -> {
+                    if (!rs.next()) {
+                        return Optional.<T>empty();
+                    }
+                    try (InputStream in = rs.getBinaryStream(1)) {
+                        return Optional.ofNullable(reader.read(in));
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                },
+                documentId);
+    }
+
+    /**
+     * Finds documents whose payload still lives in {@code file_data}
+     * @param afterId only IDs greater than this are returned
+     * @param limit maximum number of IDs
+     * @return document IDs in ascending order
+     */
+    public List<Long> findIdsWithInlineFileData(long afterId, int limit) {
+        return jdbcTemplate.queryForList(
+                "SELECT document_id FROM documents " +
+                        "WHERE content_hash IS NULL AND file_data IS NOT NULL AND document_id > ? " +
+                        "ORDER BY document_id LIMIT ?",
+                Long.class, afterId, limit);
+    }
+
+    /**
+     * Points a document at externally stored content and drops its inline copy
+     * @param documentId the document ID
+     * @param contentHash the storage key of the payload
+     * @param codec the codec the payload was stored with
+     * @param size the original size in bytes
+     * @param storedSize the stored size in bytes
+     * @return true if the row was updated
+     */
+    public boolean markExternalized(Long documentId, String contentHash, DocumentCodec codec, long size, long storedSize) {
+        return jdbcTemplate.update(
+                "UPDATE documents SET content_hash = ?, codec = ?, file_size = ?, stored_size = ?, file_data = NULL " +
+                        "WHERE document_id = ? AND content_hash IS NULL",
+                contentHash, codec.name(), size, storedSize, documentId) == 1;
+    }
+
+    @FunctionalInterface
+    public interface FileDataReader<T> {
+        T read(InputStream in) throws IOException;
+    }
+}
@@ -1,15 +1,169 @@
 package com.novavista.binaa.center.repository;
 
+import com.novavista.binaa.center.dto.request.DocumentDTO;
+import com.novavista.binaa.center.dto.response.DocumentStorageUsageDTO;
 import com.novavista.binaa.center.entity.Case;
 import com.novavista.binaa.center.entity.Document;
+import com.novavista.binaa.center.enums.DocumentCodec;
 import com.novavista.binaa.center.enums.DocumentType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface DocumentRepository extends JpaRepository<Document, Long> {
     List<Document> findByCaseInfo(Case caseInfo);
     List<Document> findByType(DocumentType type);
+
+    @Query("""
+        SELECT new com.novavista.binaa.center.dto.request.DocumentDTO(
+            d.documentId,
+            c.caseId,
+            d.type,
+            d.fileName,
+            d.contentType,
+            d.contentHash,
+            d.previewHash,
+            d.fileSize,
+            d.uploadDate,
+            u.userId)
+        FROM Document d
+        LEFT JOIN d.caseInfo c
+        LEFT JOIN d.uploadedBy u
+        WHERE d.documentId = :id
+        """)
+    Optional<DocumentDTO> findMetadataById(@Param("id") Long id);
+
+    @Query("""
+        SELECT new com.novavista.binaa.center.dto.request.DocumentDTO(
+            d.documentId,
+            c.caseId,
+            d.type,
+            d.fileName,
+            d.contentType,
+            d.contentHash,
+            d.previewHash,
+            d.fileSize,
+            d.uploadDate,
+            u.userId)
+        FROM Document d
+        LEFT JOIN d.caseInfo c
+        LEFT JOIN d.uploadedBy u
+        WHERE c.caseId = :caseId
+        ORDER BY d.uploadDate DESC, d.documentId DESC
+        """)
+    List<DocumentDTO> findMetadataByCaseId(@Param("caseId") Long caseId);
+
+    @Query("""
+        SELECT new com.novavista.binaa.center.dto.request.DocumentDTO(
+            d.documentId,
+            c.caseId,
+            d.type,
+            d.fileName,
+            d.contentType,
+            d.contentHash,
+            d.previewHash,
+            d.fileSize,
+            d.uploadDate,
+            u.userId)
+        FROM Document d
+        LEFT JOIN d.caseInfo c
+        LEFT JOIN d.uploadedBy u
+        WHERE d.type = :type
+        ORDER BY d.uploadDate DESC, d.documentId DESC
+        """)
+    List<DocumentDTO> findMetadataByType(@Param("type") DocumentType type);
+
+    @Query("""
+        SELECT new com.novavista.binaa.center.dto.request.DocumentDTO(
+            d.documentId,
+            c.caseId,
+            d.type,
+            d.fileName,
+            d.contentType,
+            d.contentHash,
+            d.previewHash,
+            d.fileSize,
+            d.uploadDate,
+            u.userId)
+        FROM Document d
+        LEFT JOIN d.caseInfo c
+        LEFT JOIN d.uploadedBy u
+        ORDER BY d.uploadDate DESC, d.documentId DESC
+        """)
+    List<DocumentDTO> findAllMetadata();
+
+    @Query("SELECT d.contentHash AS contentHash, d.codec AS codec FROM Document d WHERE d.documentId = :id")
+    Optional<StoredContentView> findStoredContentById(@Param("id") Long id);
+
+    @Query("SELECT d.previewHash FROM Document d WHERE d.documentId = :id")
+    Optional<String> findPreviewHashById(@Param("id") Long id);
+
+    /**
+     * Stored documents of a type that may have a preview but have none yet, leaving
+     * out content that already failed to render
+     */
+    @Query("""
+        SELECT d.documentId FROM Document d
+        WHERE d.contentHash IS NOT NULL AND d.previewHash IS NULL
+          AND (d.previewFailedHash IS NULL OR d.previewFailedHash <> d.contentHash)
+          AND (d.contentType LIKE 'image/%' OR d.contentType LIKE 'application/pdf%')
+        ORDER BY d.documentId
+        """)
+    List<Long> findIdsWithoutPreview();
+
+    /**
+     * Records a rendered preview, unless the content it was rendered from has been replaced meanwhile
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE Document d SET d.previewHash = :previewHash WHERE d.documentId = :id AND d.contentHash = :contentHash")
+    int updatePreviewHash(@Param("id") Long id,
+                          @Param("contentHash") String contentHash,
+                          @Param("previewHash") String previewHash);
+
+    /**
+     * Records that the given content of a document could not be rendered
+     */
+    @Modifying
+    @Transactional
+    @Query("UPDATE Document d SET d.previewFailedHash = :contentHash WHERE d.documentId = :id AND d.contentHash = :contentHash")
+    int markPreviewFailed(@Param("id") Long id, @Param("contentHash") String contentHash);
+
+    long countByContentHash(String contentHash);
+    long countByPreviewHash(String previewHash);
+
+    /**
+     * Storage use per codec; rows still held inline count their original size as stored size
+     */
+    @Query("""
+        SELECT new com.novavista.binaa.center.dto.response.DocumentStorageUsageDTO(
+            d.codec,
+            COUNT(d),
+            COALESCE(SUM(d.fileSize), 0),
+            COALESCE(SUM(COALESCE(d.storedSize, d.fileSize)), 0))
+        FROM Document d
+        GROUP BY d.codec
+        """)
+    List<DocumentStorageUsageDTO> summarizeStorageByCodec();
+
+    @Query(value = """
+        SELECT COALESCE(SUM(stored_size), 0) FROM (
+            SELECT MAX(stored_size) AS stored_size
+            FROM documents
+            WHERE content_hash IS NOT NULL
+            GROUP BY content_hash) stored
+        """, nativeQuery = true)
+    long sumDistinctStoredSize();
+
+    interface StoredContentView {
+        String getContentHash();
+        DocumentCodec getCodec();
+    }
 }
\ No newline at end of file
@@ -0,0 +1,22 @@
+package com.novavista.binaa.center.repository;
+
+import com.novavista.binaa.center.entity.DocumentUpload;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface DocumentUploadRepository extends JpaRepository<DocumentUpload, String> {
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT u FROM DocumentUpload u WHERE u.uploadId = :uploadId")
+    Optional<DocumentUpload> findByIdForUpdate(@Param("uploadId") String uploadId);
+
+    List<DocumentUpload> findByExpiresAtBefore(LocalDateTime time);
+}
@@ -0,0 +1,52 @@
+package com.novavista.binaa.center.repository;
+
+import com.novavista.binaa.center.entity.ReportJob;
+import com.novavista.binaa.center.enums.ReportJobStatus;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface ReportJobRepository extends JpaRepository<ReportJob, Long> {
+    Optional<ReportJob> findByActiveRequestHash(String activeRequestHash);
+
+    @Query("SELECT j.jobId FROM ReportJob j WHERE j.status = :status ORDER BY j.createdAt, j.jobId")
+    List<Long> findIdsByStatus(@Param("status") ReportJobStatus status, Pageable pageable);
+
+    /**
+     * Moves a job from QUEUED to RUNNING; only one caller can win for a given job,
+     * and a job that has used up its attempts is not claimed again
+     */
+    @Modifying
+    @Query("UPDATE ReportJob j SET j.status = :running, j.startedAt = :now, j.attempts = j.attempts + 1 " +
+            "WHERE j.jobId = :id AND j.status = :queued AND j.attempts < :maxAttempts")
+    int claim(@Param("id") Long id,
+              @Param("queued") ReportJobStatus queued,
+              @Param("running") ReportJobStatus running,
+              @Param("now") LocalDateTime now,
+              @Param("maxAttempts") int maxAttempts);
+
+    /**
+     * Fails the jobs in the given states that have used up their attempts
+     */
+    @Modifying
+    @Query("UPDATE ReportJob j SET j.status = :failed, j.activeRequestHash = NULL, j.errorMessage = :errorMessage, " +
+            "j.finishedAt = :now WHERE j.status IN :statuses AND j.attempts >= :maxAttempts")
+    int failExhausted(@Param("statuses") Collection<ReportJobStatus> statuses,
+                      @Param("failed") ReportJobStatus failed,
+                      @Param("maxAttempts") int maxAttempts,
+                      @Param("errorMessage") String errorMessage,
+                      @Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("UPDATE ReportJob j SET j.status = :to, j.startedAt = NULL WHERE j.status = :from")
+    int updateStatus(@Param("from") ReportJobStatus from, @Param("to") ReportJobStatus to);
+}
@@ -0,0 +1,85 @@
+package com.novavista.binaa.center.repository;
+
+import com.novavista.binaa.center.entity.Report;
+import com.novavista.binaa.center.enums.ReportType;
+import jakarta.persistence.criteria.JoinType;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.time.LocalDate;
+
+/**
+ * Report search predicates. Only the filters that are actually given become part
+ * of the query, so MySQL can pick the matching {@code (case_id, created_date)} or
+ * {@code (report_type, created_date)} index instead of scanning the table.
+ */
+public final class ReportSpecifications {
+    /**
+     * Newest first; the ID breaks ties between reports of the same day and makes
+     * the order total, which seek paging relies on
+     */
+    public static final Sort NEWEST_FIRST = Sort.by(Sort.Order.desc("createdDate"), Sort.Order.desc("reportId"));
+
+    private ReportSpecifications() {
+    }
+
+    public static Specification<Report> matching(Long caseId, ReportType reportType,
+                                                 LocalDate startDate, LocalDate endDate) {
+        Specification<Report> spec = Specification.where(withDetails());
+        if (caseId != null) {
+            spec = spec.and(hasCase(caseId));
+        }
+        if (reportType != null) {
+            spec = spec.and(hasType(reportType));
+        }
+        if (startDate != null) {
+            spec = spec.and(createdOnOrAfter(startDate));
+        }
+        if (endDate != null) {
+            spec = spec.and(createdOnOrBefore(endDate));
+        }
+        return spec;
+    }
+
+    public static Specification<Report> hasCase(Long caseId) {
+        return (root, query, cb) -> cb.equal(root.get("caseInfo").get("caseId"), caseId);
+    }
+
+    public static Specification<Report> hasType(ReportType reportType) {
+        return (root, query, cb) -> cb.equal(root.get("reportType"), reportType);
+    }
+
+    public static Specification<Report> createdOnOrAfter(LocalDate startDate) {
+        return (root, query, cb) -> cb.greaterThanOrEqualTo(root.get("createdDate"), startDate);
+    }
+
+    public static Specification<Report> createdOnOrBefore(LocalDate endDate) {
+        return (root, query, cb) -> cb.lessThanOrEqualTo(root.get("createdDate"), endDate);
+    }
+
+    /**
+     * Reports that come after the given one in {@link #NEWEST_FIRST} order
+     */
+    public static Specification<Report> after(LocalDate createdDate, Long reportId) {
+        return (root, query, cb) -> cb.or(
+                cb.lessThan(root.get("createdDate"), createdDate),
+                cb.and(
+                        cb.equal(root.get("createdDate"), createdDate),
+                        cb.lessThan(root.get("reportId"), reportId)));
+    }
+
+    /**
+     * Loads the eagerly mapped associations in the same query instead of one select
+     * per row; count queries are left alone
+     */
+    private static Specification<Report> withDetails() {
+        return (root, query, cb) -> {
+            if (!Long.class.equals(query.getResultType())) {
+                root.fetch("caseInfo", JoinType.LEFT);
+                root.fetch("session", JoinType.LEFT);
+                root.fetch("createdBy", JoinType.LEFT);
+            }
+            return null;
+        };
+    }
+}
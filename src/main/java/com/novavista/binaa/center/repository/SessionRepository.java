@@ -1,17 +1,25 @@
 package com.novavista.binaa.center.repository;
 
+import com.novavista.binaa.center.dto.response.SessionResponseDTO;
+import com.novavista.binaa.center.dto.response.SessionSummaryDTO;
 import com.novavista.binaa.center.entity.Case;
 import com.novavista.binaa.center.entity.Session;
 import com.novavista.binaa.center.entity.Staff;
 import com.novavista.binaa.center.enums.AttendanceStatus;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface SessionRepository extends JpaRepository<Session, Long> {
@@ -42,4 +50,123 @@ public interface SessionRepository extends JpaRepository<Session, Long> {
             "LEFT JOIN FETCH s.staff st " +
             "WHERE s.staff = :staff")
     List<Session> findByStaffWithDetails(@Param("staff") Staff staff);
-}
\ No newline at end of file
+
+    /*
+     * Streaming listings. A fetch size of Integer.MIN_VALUE makes MySQL Connector/J
+     * stream rows one at a time instead of buffering the whole result; rows are
+     * read straight into DTOs, so nothing accumulates in the persistence context.
+     * The streams must be consumed inside a read-only transaction and closed.
+     */
+    String SESSION_RESPONSE_SELECT = "SELECT new com.novavista.binaa.center.dto.response.SessionResponseDTO(" +
+            "s.sessionId, c.caseId, s.purpose, s.sessionDate, s.notes, st.staffId, " +
+            "s.sessionType, s.attendanceStatus, s.duration, c.name, st.name) " +
+            "FROM Session s LEFT JOIN s.caseInfo c LEFT JOIN s.staff st ";
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + Integer.MIN_VALUE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query(SESSION_RESPONSE_SELECT + "ORDER BY s.sessionId")
+    Stream<SessionResponseDTO> streamAll();
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + Integer.MIN_VALUE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query(SESSION_RESPONSE_SELECT + "WHERE c.caseId = :caseId ORDER BY s.sessionDate")
+    Stream<SessionResponseDTO> streamByCaseId(@Param("caseId") Long caseId);
+
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "" + Integer.MIN_VALUE),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query(SESSION_RESPONSE_SELECT + "WHERE s.sessionDate BETWEEN :start AND :end ORDER BY s.sessionDate")
+    Stream<SessionResponseDTO> streamBySessionDateBetween(@Param("start") LocalDateTime start,
+                                                          @Param("end") LocalDateTime end);
+
+    @Query(SESSION_RESPONSE_SELECT + "WHERE s.seriesId = :seriesId ORDER BY s.sessionDate")
+    List<SessionResponseDTO> findBySeriesId(@Param("seriesId") String seriesId);
+
+    @Query(SESSION_RESPONSE_SELECT + "WHERE st.staffId = :staffId " +
+            "AND s.sessionDate >= :start AND s.sessionDate < :end ORDER BY s.sessionDate")
+    List<SessionResponseDTO> findUpcomingByStaffId(@Param("staffId") Long staffId,
+                                                   @Param("start") LocalDateTime start,
+                                                   @Param("end") LocalDateTime end);
+
+    @Query(SESSION_RESPONSE_SELECT + "WHERE s.sessionDate >= :start AND s.sessionDate < :end ORDER BY s.sessionDate")
+    List<SessionResponseDTO> findUpcoming(@Param("start") LocalDateTime start,
+                                          @Param("end") LocalDateTime end);
+
+    @Query("SELECT new com.novavista.binaa.center.dto.response.SessionSummaryDTO(" +
+            "s.sessionId, s.caseInfo.caseId, s.sessionDate, s.purpose, st.name, s.sessionType, " +
+            "s.attendanceStatus, s.duration, s.goalsAchieved, s.nextSessionPlan) " +
+            "FROM Session s LEFT JOIN s.staff st " +
+            "WHERE s.caseInfo.caseId IN :caseIds AND s.sessionDate >= :start AND s.sessionDate < :end " +
+            "ORDER BY s.caseInfo.caseId, s.sessionDate")
+    List<SessionSummaryDTO> findSummariesByCaseIds(@Param("caseIds") Collection<Long> caseIds,
+                                                   @Param("start") LocalDateTime start,
+                                                   @Param("end") LocalDateTime end);
+
+    /**
+     * Session counts at the finest grain the statistics need: one row per day,
+     * staff member and session type. Attendance status is not grouped on; present
+     * and absent sessions and minutes are summed within each row. The row count
+     * depends on the number of days and staff in the range, not on the number of
+     * sessions.
+     */
+    @Query(value = """
+        SELECT DATE_FORMAT(DATE(s.session_date), '%Y-%m-%d') AS sessionDay,
+            s.staff_id AS staffId,
+            st.name AS staffName,
+            s.session_type AS sessionType,
+            COUNT(*) AS totalSessions,
+            SUM(s.attendance_status = 'PRESENT') AS presentSessions,
+            SUM(s.attendance_status = 'ABSENT') AS absentSessions,
+            COALESCE(SUM(s.duration), 0) AS totalMinutes,
+            COALESCE(SUM(IF(s.attendance_status = 'PRESENT', s.duration, 0)), 0) AS presentMinutes,
+            COALESCE(SUM(IF(s.attendance_status = 'ABSENT', s.duration, 0)), 0) AS absentMinutes
+        FROM sessions s
+        LEFT JOIN staff st ON st.staff_id = s.staff_id
+        WHERE s.session_date BETWEEN :start AND :end
+        GROUP BY sessionDay, s.staff_id, st.name, s.session_type
+        ORDER BY sessionDay
+        """, nativeQuery = true)
+    List<SessionStatsAggregate> aggregateSessionStats(@Param("start") LocalDateTime start,
+                                                      @Param("end") LocalDateTime end);
+
+    /**
+     * Same rows as {@link #aggregateSessionStats}, for whole days, read from the daily rollup
+     */
+    @Query(value = """
+        SELECT DATE_FORMAT(r.rollup_date, '%Y-%m-%d') AS sessionDay,
+            NULLIF(r.staff_id, 0) AS staffId,
+            st.name AS staffName,
+            r.session_type AS sessionType,
+            SUM(r.session_count) AS totalSessions,
+            SUM(r.present_count) AS presentSessions,
+            SUM(r.absent_count) AS absentSessions,
+            SUM(r.total_minutes) AS totalMinutes,
+            SUM(r.present_minutes) AS presentMinutes,
+            SUM(r.absent_minutes) AS absentMinutes
+        FROM session_daily_rollup r
+        LEFT JOIN staff st ON st.staff_id = r.staff_id
+        WHERE r.rollup_date BETWEEN :startDate AND :endDate
+        GROUP BY r.rollup_date, r.staff_id, st.name, r.session_type
+        ORDER BY r.rollup_date
+        """, nativeQuery = true)
+    List<SessionStatsAggregate> aggregateSessionStatsFromRollup(@Param("startDate") LocalDate startDate,
+                                                                @Param("endDate") LocalDate endDate);
+
+    interface SessionStatsAggregate {
+        String getSessionDay();
+        Long getStaffId();
+        String getStaffName();
+        String getSessionType();
+        Long getTotalSessions();
+        Long getPresentSessions();
+        Long getAbsentSessions();
+        Long getTotalMinutes();
+        Long getPresentMinutes();
+        Long getAbsentMinutes();
+    }
+}
@@ -0,0 +1,161 @@
+package com.novavista.binaa.center.repository;
+
+import com.novavista.binaa.center.entity.Session;
+import com.novavista.binaa.center.enums.AttendanceStatus;
+import com.novavista.binaa.center.enums.SessionType;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Maintains {@code session_daily_rollup}: session counts and minutes per day,
+ * staff member, case and session type. Session changes are applied as deltas
+ * with an upsert, so a write touches one or two rollup rows instead of
+ * re-aggregating the day. Sessions without a staff member or case are kept
+ * under ID 0. Reads go through the rollup queries of {@link SessionRepository}
+ * and {@link AttendanceAggregateRepository}.
+ */
+@Repository
+@Slf4j
+public class SessionRollupRepository {
+    private static final String UPSERT_DELTA =
+            "INSERT INTO session_daily_rollup (rollup_date, staff_id, case_id, session_type, " +
+                    "session_count, present_count, absent_count, total_minutes, present_minutes, absent_minutes) " +
+                    "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?) " +
+                    "ON DUPLICATE KEY UPDATE session_count = session_count + VALUES(session_count), " +
+                    "present_count = present_count + VALUES(present_count), " +
+                    "absent_count = absent_count + VALUES(absent_count), " +
+                    "total_minutes = total_minutes + VALUES(total_minutes), " +
+                    "present_minutes = present_minutes + VALUES(present_minutes), " +
+                    "absent_minutes = absent_minutes + VALUES(absent_minutes)";
+
+    private static final String DELETE_IF_EMPTY =
+            "DELETE FROM session_daily_rollup " +
+                    "WHERE rollup_date = ? AND staff_id = ? AND case_id = ? AND session_type = ? AND session_count <= 0";
+
+    private static final String DELETE_RANGE =
+            "DELETE FROM session_daily_rollup WHERE rollup_date BETWEEN ? AND ?";
+
+    private static final String INSERT_RANGE = """
+            INSERT INTO session_daily_rollup (rollup_date, staff_id, case_id, session_type,
+                                              session_count, present_count, absent_count,
+                                              total_minutes, present_minutes, absent_minutes)
+            SELECT DATE(s.session_date),
+                   COALESCE(s.staff_id, 0),
+                   COALESCE(s.case_id, 0),
+                   s.session_type,
+                   COUNT(*),
+                   SUM(s.attendance_status = 'PRESENT'),
+                   SUM(s.attendance_status = 'ABSENT'),
+                   COALESCE(SUM(s.duration), 0),
+                   COALESCE(SUM(IF(s.attendance_status = 'PRESENT', s.duration, 0)), 0),
+                   COALESCE(SUM(IF(s.attendance_status = 'ABSENT', s.duration, 0)), 0)
+            FROM sessions s
+            WHERE s.session_date >= ? AND s.session_date < ?
+            GROUP BY DATE(s.session_date), COALESCE(s.staff_id, 0), COALESCE(s.case_id, 0), s.session_type
+            """;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    public SessionRollupRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Counts a new session
+     */
+    public void add(Entry entry) {
+        apply(entry, 1);
+    }
+
+    /**
+     * Counts new sessions with one batched statement
+     */
+    public void addAll(List<Entry> entries) {
+        jdbcTemplate.batchUpdate(UPSERT_DELTA, entries.stream().map(entry -> deltaRow(entry, 1)).toList());
+    }
+
+    /**
+     * Stops counting a deleted session
+     */
+    public void remove(Entry entry) {
+        apply(entry, -1);
+    }
+
+    /**
+     * Moves a changed session from its old rollup row to its new one
+     */
+    public void replace(Entry before, Entry after) {
+        if (before.equals(after)) {
+            return;
+        }
+        remove(before);
+        add(after);
+    }
+
+    /**
+     * Recomputes the rollup rows of a date range from the sessions table. The
+     * aggregate read locks the sessions it scans, so concurrent session writes in
+     * the range wait for the rebuild rather than being lost by it.
+     * @param startDate first day, inclusive
+     * @param endDate last day, inclusive
+     * @return number of rollup rows written
+     */
+    @Transactional
+    public int rebuild(LocalDate startDate, LocalDate endDate) {
+        int deleted = jdbcTemplate.update(DELETE_RANGE, startDate, endDate);
+        int inserted = jdbcTemplate.update(INSERT_RANGE, startDate.atStartOfDay(), endDate.plusDays(1).atStartOfDay());
+        log.debug("Rebuilt session rollup {} - {}: {} rows replaced by {}", startDate, endDate, deleted, inserted);
+        return inserted;
+    }
+
+    private void apply(Entry entry, int sign) {
+        jdbcTemplate.update(UPSERT_DELTA, deltaRow(entry, sign));
+        if (sign < 0) {
+            jdbcTemplate.update(DELETE_IF_EMPTY,
+                    entry.day(), entry.staffId(), entry.caseId(), entry.sessionType().name());
+        }
+    }
+
+    static Object[] deltaRow(Entry entry, int sign) {
+        boolean present = entry.attendanceStatus() == AttendanceStatus.PRESENT;
+        boolean absent = entry.attendanceStatus() == AttendanceStatus.ABSENT;
+        int minutes = sign * entry.duration();
+        return new Object[]{
+                entry.day(), entry.staffId(), entry.caseId(), entry.sessionType().name(),
+                sign,
+                present ? sign : 0,
+                absent ? sign : 0,
+                minutes,
+                present ? minutes : 0,
+                absent ? minutes : 0};
+    }
+
+    /**
+     * The rollup row a session counts towards, and what it adds to it
+     */
+    public record Entry(LocalDate day, long staffId, long caseId, SessionType sessionType,
+                        AttendanceStatus attendanceStatus, int duration) {
+        public Entry {
+            Objects.requireNonNull(day, "day");
+            Objects.requireNonNull(sessionType, "sessionType");
+        }
+
+        public static Entry of(Session session) {
+            return new Entry(
+                    session.getSessionDate().toLocalDate(),
+                    session.getStaff() == null ? 0 : session.getStaff().getStaffId(),
+                    session.getCaseInfo() == null ? 0 : session.getCaseInfo().getCaseId(),
+                    session.getSessionType(),
+                    session.getAttendanceStatus(),
+                    session.getDuration() == null ? 0 : session.getDuration());
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package com.novavista.binaa.center.services;
+
+import com.novavista.binaa.center.dto.response.AttendanceReportDTO;
+
+import java.time.LocalDate;
+
+public interface AttendanceReportService {
+    /**
+     * Summarizes session attendance by case, staff member and week
+     * @param startDate first day, inclusive
+     * @param endDate last day, inclusive
+     * @param caseId restricts the report to one case, or null for all cases
+     * @param staffId restricts the report to one staff member, or null for all staff
+     * @return the attendance report
+     */
+    AttendanceReportDTO getAttendanceReport(LocalDate startDate, LocalDate endDate, Long caseId, Long staffId);
+}
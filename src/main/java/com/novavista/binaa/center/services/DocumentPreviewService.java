@@ -0,0 +1,33 @@
+package com.novavista.binaa.center.services;
+
+import java.io.OutputStream;
+
+public interface DocumentPreviewService {
+    /**
+     * Renders and stores the thumbnail of a document. Documents whose type
+     * cannot be previewed are skipped.
+     * @param documentId the document ID
+     */
+    void generatePreview(Long documentId);
+
+    /**
+     * Renders the thumbnails of stored documents that have none yet, e.g. ones
+     * uploaded before previews were introduced
+     * @return number of documents rendered or attempted
+     */
+    int generateMissingPreviews();
+
+    /**
+     * Retrieves the storage key of a document's thumbnail
+     * @param documentId the document ID
+     * @return the preview hash
+     */
+    String getPreviewHash(Long documentId);
+
+    /**
+     * Writes a stored thumbnail as PNG
+     * @param previewHash the preview hash
+     * @param out the destination stream
+     */
+    void writePreview(String previewHash, OutputStream out);
+}
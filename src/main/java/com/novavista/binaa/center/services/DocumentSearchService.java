@@ -0,0 +1,35 @@
+package com.novavista.binaa.center.services;
+
+import com.novavista.binaa.center.dto.response.DocumentSearchResultDTO;
+
+import java.util.List;
+
+public interface DocumentSearchService {
+    /**
+     * Extracts the text of a document and (re)builds its index entry.
+     * Documents whose content type carries no extractable text are skipped.
+     * @param documentId the document ID
+     */
+    void indexDocument(Long documentId);
+
+    /**
+     * Drops a document from the index
+     * @param documentId the document ID
+     */
+    void removeDocument(Long documentId);
+
+    /**
+     * Indexes documents that are missing from the index or whose content changed,
+     * and forgets documents that no longer exist
+     * @return number of documents indexed
+     */
+    int indexMissingDocuments();
+
+    /**
+     * Finds documents containing any of the query terms
+     * @param query free text, Arabic or Latin
+     * @param limit maximum number of results
+     * @return matching document IDs, best match first
+     */
+    List<DocumentSearchResultDTO> search(String query, int limit);
+}
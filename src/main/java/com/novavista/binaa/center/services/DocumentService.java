@@ -1,10 +1,12 @@
 package com.novavista.binaa.center.services;
 
 import com.novavista.binaa.center.dto.request.DocumentDTO;
-import com.novavista.binaa.center.entity.Document;
+import com.novavista.binaa.center.dto.response.DocumentStorageStatsDTO;
 import com.novavista.binaa.center.enums.DocumentType;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.InputStream;
+import java.io.OutputStream;
 import java.util.List;
 
 public interface DocumentService {
@@ -14,7 +16,13 @@ public interface DocumentService {
     List<DocumentDTO> getDocumentsByType(DocumentType type);
     List<DocumentDTO> getAllDocuments();
     DocumentDTO uploadDocument(MultipartFile file, DocumentType type, Long caseId);
-    Document getDocumentForDownload(Long id);
+    DocumentDTO storeDocument(InputStream content, String fileName, String contentType, DocumentType type, Long caseId);
+    DocumentDTO getDocumentMetadata(Long id);
+    void writeDocumentContent(Long id, OutputStream out);
+    void writeDocumentContent(Long id, OutputStream out, long offset, long length);
+    InputStream openDocumentContent(Long id);
+    void writeDocumentArchive(List<DocumentDTO> documents, OutputStream out);
     DocumentDTO updateDocument(Long id, DocumentDTO documentDTO);
     void deleteDocument(Long id);
+    DocumentStorageStatsDTO getStorageStats();
 }
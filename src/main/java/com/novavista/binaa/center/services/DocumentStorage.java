@@ -0,0 +1,51 @@
+package com.novavista.binaa.center.services;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Instant;
+import java.util.function.Predicate;
+
+/**
+ * Binary store for document payloads, kept outside the {@code documents} table.
+ * Content is addressed by its SHA-256 hash, so identical uploads share one copy.
+ */
+public interface DocumentStorage {
+    /**
+     * Stores the given content, consuming and closing the stream
+     * @param content the content to store
+     * @return the content hash and size of the stored payload
+     */
+    StoredContent store(InputStream content) throws IOException;
+
+    /**
+     * Opens the payload stored under a content hash
+     * @param contentHash the SHA-256 hex digest returned by {@link #store(InputStream)}
+     * @return a stream over the stored bytes
+     */
+    InputStream open(String contentHash) throws IOException;
+
+    /**
+     * Checks whether a payload is present
+     * @param contentHash the content hash
+     * @return true if the payload exists
+     */
+    boolean exists(String contentHash);
+
+    /**
+     * Removes a payload; callers must make sure no document still references it
+     * @param contentHash the content hash
+     */
+    void delete(String contentHash) throws IOException;
+
+    /**
+     * Removes payloads that were last stored before a cutoff and are no longer in
+     * use. Storing content that is already present counts as storing it again, and
+     * the check and delete of each payload are atomic with respect to
+     * {@link #store(InputStream)}, so content a concurrent upload deduplicated onto
+     * is never removed.
+     * @param storedBefore only payloads last stored before this are considered
+     * @param inUse tells whether a content hash is still referenced
+     * @return number of payloads removed
+     */
+    int deleteUnused(Instant storedBefore, Predicate<String> inUse) throws IOException;
+}
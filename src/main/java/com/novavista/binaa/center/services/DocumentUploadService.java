@@ -0,0 +1,45 @@
+package com.novavista.binaa.center.services;
+
+import com.novavista.binaa.center.dto.request.DocumentDTO;
+import com.novavista.binaa.center.dto.request.DocumentUploadRequestDTO;
+import com.novavista.binaa.center.dto.response.DocumentUploadStatusDTO;
+
+import java.io.InputStream;
+
+public interface DocumentUploadService {
+    /**
+     * Opens a resumable upload session
+     * @param request the file description
+     * @return the session with its chunk layout
+     */
+    DocumentUploadStatusDTO createUpload(DocumentUploadRequestDTO request);
+
+    /**
+     * Retrieves an upload session, including the chunks received so far
+     * @param uploadId the upload ID
+     * @return the session status
+     */
+    DocumentUploadStatusDTO getUpload(String uploadId);
+
+    /**
+     * Stores one chunk; re-sending a chunk replaces it
+     * @param uploadId the upload ID
+     * @param index zero-based chunk number
+     * @param content the chunk bytes
+     * @return the session status
+     */
+    DocumentUploadStatusDTO writeChunk(String uploadId, int index, InputStream content);
+
+    /**
+     * Assembles the chunks into a document
+     * @param uploadId the upload ID
+     * @return the created document
+     */
+    DocumentDTO completeUpload(String uploadId);
+
+    /**
+     * Discards an upload session and its chunks
+     * @param uploadId the upload ID
+     */
+    void abortUpload(String uploadId);
+}
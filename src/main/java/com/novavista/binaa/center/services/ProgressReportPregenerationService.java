@@ -0,0 +1,16 @@
+package com.novavista.binaa.center.services;
+
+import com.novavista.binaa.center.dto.response.ProgressPregenerationResultDTO;
+
+import java.time.YearMonth;
+import java.util.concurrent.CompletableFuture;
+
+public interface ProgressReportPregenerationService {
+    /**
+     * Generates the progress report of every active case for a month, replacing
+     * the ones generated for that month before. Runs nightly; only one run at a time.
+     * @param month the report period
+     * @return completes when all reports are saved
+     */
+    CompletableFuture<ProgressPregenerationResultDTO> pregenerate(YearMonth month);
+}
@@ -0,0 +1,45 @@
+package com.novavista.binaa.center.services;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Registration forms rendered to temporary files, in output order.
+ * Closing the batch deletes the files.
+ */
+@Getter
+@Slf4j
+@AllArgsConstructor
+public class RegistrationFormBatch implements AutoCloseable {
+    private final List<Form> forms;
+    private final List<Long> failedCaseIds;
+    private final long renderMillis;
+
+    public double getFormsPerSecond() {
+        return renderMillis == 0 ? forms.size() : forms.size() * 1000.0 / renderMillis;
+    }
+
+    @Override
+    public void close() {
+        for (Form form : forms) {
+            try {
+                Files.deleteIfExists(form.getFile());
+            } catch (IOException e) {
+                log.warn("Failed to delete temporary form {}: {}", form.getFile(), e.getMessage());
+            }
+        }
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class Form {
+        private final Long caseId;
+        private final Path file;
+    }
+}
@@ -0,0 +1,28 @@
+package com.novavista.binaa.center.services;
+
+import com.novavista.binaa.center.dto.request.RegistrationFormBatchRequestDTO;
+
+import java.io.OutputStream;
+
+public interface RegistrationFormBatchService {
+    /**
+     * Fills the registration forms of the requested cases in parallel
+     * @param request explicit case IDs or a case status
+     * @return the rendered forms; the caller must close the batch
+     */
+    RegistrationFormBatch renderForms(RegistrationFormBatchRequestDTO request);
+
+    /**
+     * Writes all forms of a batch as one merged PDF
+     * @param batch the rendered forms
+     * @param out the destination stream
+     */
+    void writeMergedPdf(RegistrationFormBatch batch, OutputStream out);
+
+    /**
+     * Writes all forms of a batch as a ZIP with one PDF per case
+     * @param batch the rendered forms
+     * @param out the destination stream
+     */
+    void writeZip(RegistrationFormBatch batch, OutputStream out);
+}
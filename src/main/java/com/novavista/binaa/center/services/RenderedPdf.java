@@ -0,0 +1,13 @@
+package com.novavista.binaa.center.services;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+@Getter
+@ToString(exclude = "content")
+@AllArgsConstructor
+public class RenderedPdf {
+    private final String version; // hash of everything the PDF is rendered from, usable as ETag
+    private final byte[] content;
+}
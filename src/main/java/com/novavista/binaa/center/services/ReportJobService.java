@@ -0,0 +1,55 @@
+package com.novavista.binaa.center.services;
+
+import com.novavista.binaa.center.dto.request.ReportGenerationRequestDTO;
+import com.novavista.binaa.center.dto.response.ReportJobDTO;
+import com.novavista.binaa.center.dto.response.ReportResultDTO;
+
+import java.util.List;
+
+public interface ReportJobService {
+    /**
+     * Queues a report for generation, or returns the queued or running job of an identical request
+     * @param requestDTO the report request
+     * @return the job to poll
+     */
+    ReportJobDTO submitJob(ReportGenerationRequestDTO requestDTO);
+
+    /**
+     * Retrieves the state of a job
+     * @param jobId the job ID
+     * @return the job
+     */
+    ReportJobDTO getJob(Long jobId);
+
+    /**
+     * Retrieves the report produced by a job
+     * @param jobId the job ID
+     * @return the generated report
+     */
+    ReportResultDTO getJobReport(Long jobId);
+
+    /**
+     * Marks up to {@code limit} of the oldest queued jobs as running
+     * @param limit maximum number of jobs
+     * @return IDs of the jobs now owned by the caller
+     */
+    List<Long> claimQueuedJobs(int limit);
+
+    /**
+     * Rebuilds the original request of a job
+     * @param jobId the job ID
+     * @return the report request
+     */
+    ReportGenerationRequestDTO getJobRequest(Long jobId);
+
+    void completeJob(Long jobId, Long reportId);
+
+    void failJob(Long jobId, String errorMessage);
+
+    /**
+     * Puts jobs left running by a previous shutdown back in the queue, and fails
+     * the ones that have used up {@code app.reports.jobs.max-attempts}
+     * @return number of jobs requeued
+     */
+    int requeueInterruptedJobs();
+}
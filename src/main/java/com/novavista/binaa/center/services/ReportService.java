@@ -2,26 +2,81 @@ package com.novavista.binaa.center.services;
 
 import com.novavista.binaa.center.dto.request.ReportDTO;
 import com.novavista.binaa.center.dto.request.ReportGenerationRequestDTO;
+import com.novavista.binaa.center.dto.response.FormRenderStatsDTO;
 import com.novavista.binaa.center.dto.response.ReportResultDTO;
+import com.novavista.binaa.center.dto.response.ReportSliceDTO;
+import com.novavista.binaa.center.enums.FormOutputMode;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
+import java.io.OutputStream;
+import java.io.Writer;
 import java.time.LocalDate;
+import java.time.YearMonth;
 import java.util.List;
 
 public interface ReportService {
     ReportResultDTO generateReport(ReportGenerationRequestDTO requestDTO);
 
+    /**
+     * Same as {@link #generateReport}, but failures are thrown instead of being returned as a FAILED result
+     */
+    ReportResultDTO generateReportOrThrow(ReportGenerationRequestDTO requestDTO);
+
+    /**
+     * Renders report content straight to a writer without saving a report
+     * @param requestDTO what to render, as for {@link #generateReport}
+     * @param out receives the rendered text
+     */
+    void renderReport(ReportGenerationRequestDTO requestDTO, Writer out);
+
     ReportResultDTO getReportById(Long id);
 
     List<ReportResultDTO> getReportsByCase(Long caseId);
 
+    /**
+     * The progress report the nightly batch generated for a case and month
+     */
+    ReportResultDTO getMonthlyProgressReport(Long caseId, YearMonth month);
+
     Page<ReportResultDTO> getReportsByFilters(Long caseId, String reportType,
                                               LocalDate startDate, LocalDate endDate, Pageable pageable);
 
+    /**
+     * Seek-based paging over the same filters, newest first. Unlike offset paging it
+     * costs the same on every page and runs no count query.
+     * @param afterDate creation date of the last report already read, or null for the first slice
+     * @param afterId ID of the last report already read, or null for the first slice
+     * @param size maximum number of reports in the slice
+     */
+    ReportSliceDTO getReportsAfter(Long caseId, String reportType, LocalDate startDate, LocalDate endDate,
+                                   LocalDate afterDate, Long afterId, int size);
+
+    /**
+     * Version of the PDF rendering of a report; changes whenever the content does
+     */
+    String getReportPdfVersion(Long id);
+
+    /**
+     * Writes a report as a paginated PDF
+     * @param id the report ID
+     * @param out receives the PDF
+     */
+    void writeReportPdf(Long id, OutputStream out);
+
     ReportResultDTO updateReport(Long id, ReportDTO reportDTO);
 
-    byte[] generateRegistrationForm(Long caseId);
+    /**
+     * Fills the registration form of a case, reusing the last rendering while the
+     * case and the template are unchanged
+     */
+    RenderedPdf generateRegistrationForm(Long caseId, FormOutputMode mode);
+
+    /**
+     * Renders the registration form of a case in every output mode, bypassing the
+     * cache, and reports file size and average render time of each
+     */
+    List<FormRenderStatsDTO> compareRegistrationFormModes(Long caseId);
 
     void deleteReport(Long id);
 }
\ No newline at end of file
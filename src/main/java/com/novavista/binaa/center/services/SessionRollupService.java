@@ -0,0 +1,17 @@
+package com.novavista.binaa.center.services;
+
+import com.novavista.binaa.center.dto.response.SessionRollupRebuildResultDTO;
+
+import java.time.LocalDate;
+import java.util.concurrent.CompletableFuture;
+
+public interface SessionRollupService {
+    /**
+     * Recomputes the daily session rollup of a date range from the sessions
+     * table, in chunks of days that run in parallel. Only one rebuild at a time.
+     * @param startDate first day, inclusive
+     * @param endDate last day, inclusive
+     * @return completes when every chunk is rebuilt
+     */
+    CompletableFuture<SessionRollupRebuildResultDTO> rebuild(LocalDate startDate, LocalDate endDate);
+}
@@ -1,12 +1,15 @@
 package com.novavista.binaa.center.services;
 
 import com.novavista.binaa.center.dto.request.SessionDTO;
+import com.novavista.binaa.center.dto.request.SessionSeriesDTO;
 import com.novavista.binaa.center.dto.response.SessionResponseDTO;
+import com.novavista.binaa.center.dto.response.SessionSeriesResponseDTO;
+import com.novavista.binaa.center.dto.response.SessionStatsDTO;
 import com.novavista.binaa.center.enums.AttendanceStatus;
 
+import java.io.OutputStream;
 import java.time.LocalDateTime;
 import java.util.List;
-import java.util.Map;
 
 public interface SessionService {
     /**
@@ -16,12 +19,42 @@ public interface SessionService {
      */
     SessionResponseDTO createSession(SessionDTO sessionDTO);
 
+    /**
+     * Books a recurring series of sessions. All occurrences are validated before
+     * any is saved, and they are inserted together.
+     * @param seriesDTO the shared session data and the recurrence
+     * @return the series with its sessions
+     */
+    SessionSeriesResponseDTO createSessionSeries(SessionSeriesDTO seriesDTO);
+
     /**
      * Retrieves all sessions with case and staff details
      * @return list of sessions with full details
      */
     List<SessionResponseDTO> getAllSessions();
 
+    /**
+     * Writes all sessions as a JSON array, reading and writing one row at a time
+     * so memory use does not depend on the number of sessions
+     * @param out receives the JSON
+     */
+    void writeAllSessions(OutputStream out);
+
+    /**
+     * Writes the sessions of a case as a JSON array, one row at a time
+     * @param caseId the case ID
+     * @param out receives the JSON
+     */
+    void writeSessionsByCase(Long caseId, OutputStream out);
+
+    /**
+     * Writes the sessions within a date range as a JSON array, one row at a time
+     * @param start start date/time
+     * @param end end date/time
+     * @param out receives the JSON
+     */
+    void writeSessionsByDateRange(LocalDateTime start, LocalDateTime end, OutputStream out);
+
     /**
      * Retrieves a specific session by ID with full details
      * @param id the session ID
@@ -73,20 +106,18 @@ public interface SessionService {
     List<SessionResponseDTO> getSessionsByStaff(Long staffId);
 
     /**
-     * Retrieves session statistics for a given date range
+     * Retrieves session statistics for a given date range, with breakdowns by
+     * day, staff, session type and attendance status
      * @param start start date/time
      * @param end end date/time
-     * @return map of session statistics
+     * @return session statistics
      */
-    Map<String, Object> getSessionStats(LocalDateTime start, LocalDateTime end);
+    SessionStatsDTO getSessionStats(LocalDateTime start, LocalDateTime end);
 
     /**
      * Retrieves upcoming sessions within the next 7 days
-     * @return list of upcoming sessions
+     * @param staffId restricts the list to one staff member, or null for all staff
+     * @return list of upcoming sessions in date order
      */
-    default List<SessionResponseDTO> getUpcomingSessions() {
-        LocalDateTime now = LocalDateTime.now();
-        LocalDateTime nextWeek = now.plusDays(7);
-        return getSessionsByDateRange(now, nextWeek);
-    }
+    List<SessionResponseDTO> getUpcomingSessions(Long staffId);
 }
\ No newline at end of file
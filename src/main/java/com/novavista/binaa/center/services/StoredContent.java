@@ -0,0 +1,14 @@
+package com.novavista.binaa.center.services;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+@Getter
+@ToString
+@AllArgsConstructor
+public class StoredContent {
+    private final String contentHash;
+    private final long size;
+    private final boolean deduplicated;
+}
@@ -0,0 +1,78 @@
+package com.novavista.binaa.center.services.impl;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * Turns free text into search terms. Arabic is folded the way people type it
+ * in a search box: diacritics and tatweel are dropped, alef/hamza forms, taa
+ * marbuta and alef maqsura are unified, and the definite article is stripped.
+ * The same rules run at index and at query time.
+ */
+final class ArabicTextNormalizer {
+    private static final Pattern TOKEN_SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final String[] ARTICLE_PREFIXES = {"وال", "بال", "كال", "فال", "لل", "ال"};
+    private static final int MIN_TERM_LENGTH = 2;
+    // Longer runs are encoded data (base64, hashes) rather than words, and would bloat the index
+    static final int MAX_TERM_LENGTH = 64;
+
+    private ArabicTextNormalizer() {
+    }
+
+    static List<String> terms(String text) {
+        List<String> terms = new ArrayList<>();
+        if (text == null || text.isBlank()) {
+            return terms;
+        }
+        for (String token : TOKEN_SEPARATOR.split(normalize(text))) {
+            String term = stripArticle(token);
+            if (term.length() >= MIN_TERM_LENGTH && term.length() <= MAX_TERM_LENGTH) {
+                terms.add(term);
+            }
+        }
+        return terms;
+    }
+
+    static String normalize(String text) {
+        // NFKC folds the presentation forms PDF text extraction often produces back to base letters
+        String folded = Normalizer.normalize(text, Normalizer.Form.NFKC).toLowerCase(Locale.ROOT);
+        StringBuilder normalized = new StringBuilder(folded.length());
+        for (int i = 0; i < folded.length(); i++) {
+            char c = folded.charAt(i);
+            if ((c >= '\u064B' && c <= '\u065F') || c == '\u0670' || c == '\u0640') {
+                continue; // tashkeel, superscript alef, tatweel
+            }
+            normalized.append(switch (c) {
+                case '\u0622', '\u0623', '\u0625', '\u0671' -> '\u0627'; // آ أ إ ٱ -> ا
+                case '\u0629' -> '\u0647'; // ة -> ه
+                case '\u0649' -> '\u064A'; // ى -> ي
+                case '\u0624' -> '\u0648'; // ؤ -> و
+                case '\u0626' -> '\u064A'; // ئ -> ي
+                default -> toAsciiDigit(c);
+            });
+        }
+        return normalized.toString();
+    }
+
+    private static char toAsciiDigit(char c) {
+        if (c >= '\u0660' && c <= '\u0669') { // Arabic-Indic digits
+            return (char) ('0' + (c - '\u0660'));
+        }
+        if (c >= '\u06F0' && c <= '\u06F9') { // Extended (Persian) digits
+            return (char) ('0' + (c - '\u06F0'));
+        }
+        return c;
+    }
+
+    private static String stripArticle(String token) {
+        for (String prefix : ARTICLE_PREFIXES) {
+            if (token.startsWith(prefix) && token.length() - prefix.length() >= MIN_TERM_LENGTH) {
+                return token.substring(prefix.length());
+            }
+        }
+        return token;
+    }
+}
@@ -0,0 +1,99 @@
+package com.novavista.binaa.center.services.impl;
+
+import com.novavista.binaa.center.dto.response.AttendanceBreakdownDTO;
+import com.novavista.binaa.center.dto.response.AttendanceReportDTO;
+import com.novavista.binaa.center.exceptions.ValidationException;
+import com.novavista.binaa.center.repository.AttendanceAggregateRepository;
+import com.novavista.binaa.center.repository.AttendanceAggregateRepository.AttendanceAggregate;
+import com.novavista.binaa.center.services.AttendanceReportService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Builds attendance reports from {@code GROUP BY} queries over the sessions table,
+ * or over the daily session rollup when it is enabled for reads. No session
+ * entities are loaded: each breakdown is one index scan, and the totals are
+ * summed from the weekly rows.
+ */
+@Service
+@Slf4j
+@Transactional(readOnly = true)
+public class AttendanceReportServiceImpl implements AttendanceReportService {
+    private final AttendanceAggregateRepository attendanceAggregateRepository;
+    private final boolean readFromRollup;
+
+    @Autowired
+    public AttendanceReportServiceImpl(AttendanceAggregateRepository attendanceAggregateRepository,
+                                       @Value("${app.sessions.rollup.read-enabled:true}") boolean readFromRollup) {
+        this.attendanceAggregateRepository = attendanceAggregateRepository;
+        this.readFromRollup = readFromRollup;
+    }
+
+    @Override
+    public AttendanceReportDTO getAttendanceReport(LocalDate startDate, LocalDate endDate, Long caseId, Long staffId) {
+        if (startDate == null || endDate == null) {
+            throw new ValidationException("Start and end dates are required");
+        }
+        if (endDate.isBefore(startDate)) {
+            throw new ValidationException("End date must not be before start date");
+        }
+        List<AttendanceBreakdownDTO> byWeek;
+        List<AttendanceBreakdownDTO> byCase;
+        List<AttendanceBreakdownDTO> byStaff;
+        if (readFromRollup) {
+            byWeek = toBreakdown(attendanceAggregateRepository.aggregateByWeekFromRollup(startDate, endDate, caseId, staffId));
+            byCase = toBreakdown(attendanceAggregateRepository.aggregateByCaseFromRollup(startDate, endDate, caseId, staffId));
+            byStaff = toBreakdown(attendanceAggregateRepository.aggregateByStaffFromRollup(startDate, endDate, caseId, staffId));
+        } else {
+            LocalDateTime start = startDate.atStartOfDay();
+            LocalDateTime end = endDate.plusDays(1).atStartOfDay();
+            byWeek = toBreakdown(attendanceAggregateRepository.aggregateByWeek(start, end, caseId, staffId));
+            byCase = toBreakdown(attendanceAggregateRepository.aggregateByCase(start, end, caseId, staffId));
+            byStaff = toBreakdown(attendanceAggregateRepository.aggregateByStaff(start, end, caseId, staffId));
+        }
+
+        long total = 0;
+        long present = 0;
+        long absent = 0;
+        long minutes = 0;
+        for (AttendanceBreakdownDTO week : byWeek) {
+            total += week.getTotalSessions();
+            present += week.getPresentCount();
+            absent += week.getAbsentCount();
+            minutes += week.getTotalMinutes();
+        }
+        log.debug("Attendance report {} - {}: {} sessions in {} weeks", startDate, endDate, total, byWeek.size());
+
+        return new AttendanceReportDTO(startDate, endDate, caseId, staffId,
+                total, present, absent, rate(present, absent), minutes,
+                byCase, byStaff, byWeek);
+    }
+
+    private static List<AttendanceBreakdownDTO> toBreakdown(List<AttendanceAggregate> rows) {
+        return rows.stream()
+                .map(row -> new AttendanceBreakdownDTO(
+                        row.groupId(),
+                        row.label(),
+                        row.totalSessions(),
+                        row.presentCount(),
+                        row.absentCount(),
+                        rate(row.presentCount(), row.absentCount()),
+                        row.totalMinutes()))
+                .toList();
+    }
+
+    /**
+     * Share of sessions attended, counting only sessions whose attendance was recorded
+     */
+    private static Double rate(long present, long absent) {
+        long recorded = present + absent;
+        return recorded == 0 ? null : Math.round(present * 1000.0 / recorded) / 10.0;
+    }
+}
@@ -0,0 +1,31 @@
+package com.novavista.binaa.center.services.impl;
+
+import com.ibm.icu.text.ArabicShaping;
+import com.ibm.icu.text.ArabicShapingException;
+import com.ibm.icu.text.Bidi;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * PDFBox neither joins Arabic letters nor reorders bidirectional text, so text is
+ * converted to presentation forms in display order with ICU before it is drawn
+ */
+@Slf4j
+final class BidiText {
+    private BidiText() {
+    }
+
+    static boolean isRightToLeft(String text) {
+        return Bidi.getBaseDirection(text) == Bidi.RTL;
+    }
+
+    static String toVisualOrder(String text) {
+        try {
+            String shaped = new ArabicShaping(ArabicShaping.LETTERS_SHAPE | ArabicShaping.TEXT_DIRECTION_LOGICAL)
+                    .shape(text);
+            return new Bidi(shaped, Bidi.DIRECTION_DEFAULT_LEFT_TO_RIGHT).writeReordered(Bidi.DO_MIRRORING);
+        } catch (ArabicShapingException e) {
+            log.debug("Failed to shape text, drawing it unshaped: {}", e.getMessage());
+            return text;
+        }
+    }
+}
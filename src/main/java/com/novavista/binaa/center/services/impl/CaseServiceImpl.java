@@ -30,13 +30,16 @@ public class CaseServiceImpl implements CaseService {
     private final CaseRepository caseRepository;
     private final CaseMapper caseMapper;
     private final NotificationEventPublisher notificationPublisher;
+    private final RenderedPdfCache renderedPdfCache;
 
 
     @Autowired
-    public CaseServiceImpl(CaseRepository caseRepository, CaseMapper caseMapper,NotificationEventPublisher notificationPublisher) {
+    public CaseServiceImpl(CaseRepository caseRepository, CaseMapper caseMapper,NotificationEventPublisher notificationPublisher,
+                           RenderedPdfCache renderedPdfCache) {
         this.caseRepository = caseRepository;
         this.caseMapper = caseMapper;
         this.notificationPublisher = notificationPublisher ;
+        this.renderedPdfCache = renderedPdfCache;
     }
 
     @Override
@@ -163,6 +166,7 @@ public class CaseServiceImpl implements CaseService {
 
         // Save the updated case
         Case updatedCase = caseRepository.save(existingCase);
+        renderedPdfCache.evict(RenderedPdfCache.REGISTRATION_FORM, id);
         log.info("Case updated with ID: {}", id);
         return caseMapper.toDto(updatedCase);
     }
@@ -171,6 +175,7 @@ public class CaseServiceImpl implements CaseService {
     public void deleteCase(Long id) {
         try {
             caseRepository.deleteById(id);
+            renderedPdfCache.evict(RenderedPdfCache.REGISTRATION_FORM, id);
             log.info("Case deleted with ID: {}", id);
         } catch (DataIntegrityViolationException e) {
             log.error("Cannot delete case: {}", e.getMessage());
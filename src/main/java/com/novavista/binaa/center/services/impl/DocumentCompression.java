@@ -0,0 +1,60 @@
+package com.novavista.binaa.center.services.impl;
+
+import com.novavista.binaa.center.enums.DocumentCodec;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+
+import java.io.InputStream;
+import java.util.Set;
+import java.util.zip.DeflaterInputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Chooses and applies the at-rest codec of document payloads. Only formats that
+ * are known to shrink are deflated; JPEG, PNG, ZIP and the OOXML family (DOCX,
+ * XLSX, PPTX are ZIP archives) are stored as they are, as is anything unknown.
+ */
+final class DocumentCompression {
+    private static final Set<String> COMPRESSIBLE_TYPES = Set.of(
+            "application/pdf",
+            "application/json",
+            "application/xml",
+            "application/rtf",
+            "application/msword",
+            "application/vnd.ms-excel",
+            "application/vnd.ms-powerpoint",
+            "image/bmp",
+            "image/svg+xml");
+
+    private DocumentCompression() {
+    }
+
+    static DocumentCodec codecFor(String contentType) {
+        if (contentType == null) {
+            return DocumentCodec.NONE;
+        }
+        try {
+            MediaType mediaType = MediaType.parseMediaType(contentType);
+            String baseType = (mediaType.getType() + "/" + mediaType.getSubtype()).toLowerCase();
+            return "text".equalsIgnoreCase(mediaType.getType()) || COMPRESSIBLE_TYPES.contains(baseType)
+                    ? DocumentCodec.DEFLATE
+                    : DocumentCodec.NONE;
+        } catch (InvalidMediaTypeException e) {
+            return DocumentCodec.NONE;
+        }
+    }
+
+    /**
+     * Wraps raw content so that reading it yields the encoded bytes
+     */
+    static InputStream encode(InputStream raw, DocumentCodec codec) {
+        return codec == DocumentCodec.DEFLATE ? new DeflaterInputStream(raw) : raw;
+    }
+
+    /**
+     * Wraps stored bytes so that reading them yields the original content
+     */
+    static InputStream decode(InputStream stored, DocumentCodec codec) {
+        return codec == DocumentCodec.DEFLATE ? new InflaterInputStream(stored) : stored;
+    }
+}
@@ -0,0 +1,51 @@
+package com.novavista.binaa.center.services.impl;
+
+import com.novavista.binaa.center.repository.DocumentRepository;
+import com.novavista.binaa.center.services.DocumentStorage;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * Removes stored content that no document references any more: the old content and
+ * preview of replaced or deleted documents, and content stored by uploads whose
+ * transaction rolled back. Content is only removed once it was last stored longer
+ * than the grace period ago, so an upload that is still about to reference it is
+ * not raced.
+ */
+@Component
+@Slf4j
+public class DocumentContentSweeper {
+    private final DocumentStorage documentStorage;
+    private final DocumentRepository documentRepository;
+    private final Duration grace;
+
+    @Autowired
+    public DocumentContentSweeper(DocumentStorage documentStorage,
+                                  DocumentRepository documentRepository,
+                                  @Value("${app.file-storage.sweep-grace:PT1H}") Duration grace) {
+        this.documentStorage = documentStorage;
+        this.documentRepository = documentRepository;
+        this.grace = grace;
+    }
+
+    @Scheduled(fixedDelayString = "${app.file-storage.sweep-interval:PT1H}", initialDelayString = "PT10M")
+    public void sweep() {
+        try {
+            int deleted = documentStorage.deleteUnused(Instant.now().minus(grace), contentHash ->
+                    documentRepository.countByContentHash(contentHash) > 0
+                            || documentRepository.countByPreviewHash(contentHash) > 0);
+            if (deleted > 0) {
+                log.info("Removed {} unused stored documents", deleted);
+            }
+        } catch (IOException e) {
+            log.error("Failed to sweep stored documents: {}", e.getMessage());
+        }
+    }
+}
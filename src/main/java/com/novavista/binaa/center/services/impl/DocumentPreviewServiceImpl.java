@@ -0,0 +1,203 @@
+package com.novavista.binaa.center.services.impl;
+
+import com.novavista.binaa.center.dto.request.DocumentDTO;
+import com.novavista.binaa.center.exceptions.ResourceNotFoundException;
+import com.novavista.binaa.center.repository.DocumentRepository;
+import com.novavista.binaa.center.services.DocumentPreviewService;
+import com.novavista.binaa.center.services.DocumentService;
+import com.novavista.binaa.center.services.DocumentStorage;
+import com.novavista.binaa.center.services.StoredContent;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.pdfbox.io.MemoryUsageSetting;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
+import org.apache.pdfbox.rendering.ImageType;
+import org.apache.pdfbox.rendering.PDFRenderer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+
+@Service
+@Slf4j
+public class DocumentPreviewServiceImpl implements DocumentPreviewService {
+    static final int MAX_DIMENSION = 320;
+
+    private static final Set<String> IMAGE_TYPES = Set.of("image/jpeg", "image/png", "image/gif", "image/bmp");
+
+    private final DocumentRepository documentRepository;
+    private final DocumentService documentService;
+    private final DocumentStorage documentStorage;
+
+    @Autowired
+    public DocumentPreviewServiceImpl(DocumentRepository documentRepository,
+                                      DocumentService documentService,
+                                      DocumentStorage documentStorage) {
+        this.documentRepository = documentRepository;
+        this.documentService = documentService;
+        this.documentStorage = documentStorage;
+    }
+
+    @Override
+    public void generatePreview(Long documentId) {
+        DocumentDTO document = documentRepository.findMetadataById(documentId).orElse(null);
+        if (document == null || document.getContentHash() == null) {
+            return;
+        }
+        String type = baseType(document.getContentType());
+        boolean pdf = MediaType.APPLICATION_PDF_VALUE.equals(type);
+        if (!pdf && !IMAGE_TYPES.contains(type)) {
+            log.debug("No preview for document {} of type {}", documentId, document.getContentType());
+            markPreviewFailed(documentId, document.getContentHash());
+            return;
+        }
+
+        long start = System.currentTimeMillis();
+        BufferedImage thumbnail;
+        try (InputStream in = documentService.openDocumentContent(documentId)) {
+            thumbnail = pdf ? renderFirstPage(in) : renderImage(in);
+        } catch (IOException | RuntimeException e) {
+            // Damaged or encrypted files simply have no preview, and are not tried again
+            log.warn("Could not generate preview for document {}: {}", documentId, e.getMessage());
+            markPreviewFailed(documentId, document.getContentHash());
+            return;
+        }
+        if (thumbnail == null) {
+            log.debug("Nothing to render for document {}", documentId);
+            markPreviewFailed(documentId, document.getContentHash());
+            return;
+        }
+
+        try {
+            ByteArrayOutputStream png = new ByteArrayOutputStream();
+            ImageIO.write(thumbnail, "png", png);
+            StoredContent stored = documentStorage.store(new ByteArrayInputStream(png.toByteArray()));
+            if (documentRepository.updatePreviewHash(documentId, document.getContentHash(), stored.getContentHash()) == 0) {
+                // Deleted or replaced while rendering; the newer content gets its own preview,
+                // and the sweep removes this one once nothing references it
+                return;
+            }
+            log.info("Generated preview for document {} ({} bytes) in {} ms",
+                    documentId, stored.getSize(), System.currentTimeMillis() - start);
+        } catch (IOException | RuntimeException e) {
+            // Left unmarked, so the next backfill tries again
+            log.warn("Could not store preview for document {}: {}", documentId, e.getMessage());
+        }
+    }
+
+    @Override
+    public int generateMissingPreviews() {
+        List<Long> documentIds = documentRepository.findIdsWithoutPreview();
+        log.info("Document preview backfill: {} to render", documentIds.size());
+        documentIds.forEach(this::generatePreview);
+        return documentIds.size();
+    }
+
+    @Override
+    public String getPreviewHash(Long documentId) {
+        if (!documentRepository.existsById(documentId)) {
+            throw new ResourceNotFoundException("Document not found");
+        }
+        return documentRepository.findPreviewHashById(documentId)
+                .orElseThrow(() -> new ResourceNotFoundException("Preview not available"));
+    }
+
+    @Override
+    public void writePreview(String previewHash, OutputStream out) {
+        try (InputStream in = documentStorage.open(previewHash)) {
+            in.transferTo(out);
+            out.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to stream preview " + previewHash, e);
+        }
+    }
+
+    private BufferedImage renderFirstPage(InputStream in) throws IOException {
+        // Buffer the parsed file on disk rather than the heap
+        try (PDDocument pdf = PDDocument.load(in, MemoryUsageSetting.setupTempFileOnly())) {
+            if (pdf.getNumberOfPages() == 0) {
+                return null;
+            }
+            PDRectangle box = pdf.getPage(0).getCropBox();
+            float scale = MAX_DIMENSION / Math.max(box.getWidth(), box.getHeight());
+            return new PDFRenderer(pdf).renderImage(0, scale, ImageType.RGB);
+        }
+    }
+
+    private BufferedImage renderImage(InputStream in) throws IOException {
+        try (ImageInputStream input = ImageIO.createImageInputStream(in)) {
+            Iterator<ImageReader> readers = input == null ? null : ImageIO.getImageReaders(input);
+            if (readers == null || !readers.hasNext()) {
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                // Decode every n-th pixel only; a full-resolution photo would need hundreds of MB
+                int largest = Math.max(reader.getWidth(0), reader.getHeight(0));
+                int step = Math.max(1, largest / (MAX_DIMENSION * 2));
+                ImageReadParam param = reader.getDefaultReadParam();
+                param.setSourceSubsampling(step, step, 0, 0);
+                return scaleToFit(reader.read(0, param));
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    private static BufferedImage scaleToFit(BufferedImage source) {
+        double ratio = Math.min(1.0, (double) MAX_DIMENSION / Math.max(source.getWidth(), source.getHeight()));
+        int width = Math.max(1, (int) Math.round(source.getWidth() * ratio));
+        int height = Math.max(1, (int) Math.round(source.getHeight() * ratio));
+
+        BufferedImage target = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = target.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            // Transparent areas come out white instead of black
+            graphics.drawImage(source, 0, 0, width, height, Color.WHITE, null);
+        } finally {
+            graphics.dispose();
+        }
+        return target;
+    }
+
+    private void markPreviewFailed(Long documentId, String contentHash) {
+        try {
+            documentRepository.markPreviewFailed(documentId, contentHash);
+        } catch (RuntimeException e) {
+            log.warn("Could not record preview failure of document {}: {}", documentId, e.getMessage());
+        }
+    }
+
+    private static String baseType(String contentType) {
+        if (contentType == null) {
+            return "";
+        }
+        try {
+            MediaType mediaType = MediaType.parseMediaType(contentType);
+            return (mediaType.getType() + "/" + mediaType.getSubtype()).toLowerCase();
+        } catch (InvalidMediaTypeException e) {
+            return "";
+        }
+    }
+}
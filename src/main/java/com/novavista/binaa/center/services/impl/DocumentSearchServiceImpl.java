@@ -0,0 +1,369 @@
+package com.novavista.binaa.center.services.impl;
+
+import com.novavista.binaa.center.dto.request.DocumentDTO;
+import com.novavista.binaa.center.dto.response.DocumentSearchResultDTO;
+import com.novavista.binaa.center.repository.DocumentRepository;
+import com.novavista.binaa.center.services.DocumentSearchService;
+import com.novavista.binaa.center.services.DocumentService;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.pdfbox.io.MemoryUsageSetting;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.text.PDFTextStripper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.InvalidMediaTypeException;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Collectors;
+
+/**
+ * In-process inverted index over the text of uploaded documents, ranked with BM25.
+ * Text is extracted once, when content is stored; queries only touch the postings.
+ * The index is snapshotted to disk periodically and on shutdown, and each entry
+ * remembers the content hash it was built from, so a restart only indexes
+ * documents that were added or changed in the meantime.
+ */
+@Service
+@Slf4j
+public class DocumentSearchServiceImpl implements DocumentSearchService {
+    private static final int FORMAT_VERSION = 2;
+    private static final String INLINE_CONTENT = "inline";
+    private static final int MAX_TEXT_CHARS = 2_000_000;
+    private static final int MAX_STRING_BYTES = 64 * 1024;
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+
+    private final DocumentRepository documentRepository;
+    private final DocumentService documentService;
+    private final Path indexFile;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, Map<Long, Integer>> postings = new HashMap<>();
+    private final Map<Long, IndexedDocument> documents = new HashMap<>();
+    private long totalTerms;
+    private volatile boolean dirty;
+
+    @Autowired
+    public DocumentSearchServiceImpl(DocumentRepository documentRepository,
+                                     DocumentService documentService,
+                                     @Value("${app.file-storage.location:uploads}") String location) {
+        this.documentRepository = documentRepository;
+        this.documentService = documentService;
+        this.indexFile = Paths.get(location).toAbsolutePath().normalize().resolve("index").resolve("documents.idx");
+    }
+
+    @PostConstruct
+    public void loadIndex() {
+        if (!Files.exists(indexFile)) {
+            log.info("No document index at {}, it will be built in the background", indexFile);
+            return;
+        }
+        lock.writeLock().lock();
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(indexFile)))) {
+            if (in.readInt() != FORMAT_VERSION) {
+                log.info("Document index format changed, rebuilding");
+                return;
+            }
+            int documentCount = in.readInt();
+            for (int i = 0; i < documentCount; i++) {
+                long documentId = in.readLong();
+                documents.put(documentId, new IndexedDocument(readString(in), in.readInt(), new HashSet<>()));
+            }
+            int termCount = in.readInt();
+            for (int i = 0; i < termCount; i++) {
+                String term = readString(in);
+                int size = in.readInt();
+                Map<Long, Integer> frequencies = new HashMap<>(size * 2);
+                for (int j = 0; j < size; j++) {
+                    long documentId = in.readLong();
+                    frequencies.put(documentId, in.readInt());
+                    IndexedDocument document = documents.get(documentId);
+                    if (document != null) {
+                        document.terms().add(term);
+                    }
+                }
+                postings.put(term, frequencies);
+            }
+            totalTerms = documents.values().stream().mapToLong(IndexedDocument::length).sum();
+            log.info("Loaded document index with {} documents and {} terms", documents.size(), postings.size());
+        } catch (IOException e) {
+            log.warn("Could not read document index, rebuilding: {}", e.getMessage());
+            postings.clear();
+            documents.clear();
+            totalTerms = 0;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void indexDocument(Long documentId) {
+        DocumentDTO document = documentRepository.findMetadataById(documentId).orElse(null);
+        if (document == null) {
+            removeDocument(documentId);
+            return;
+        }
+        if (!isIndexable(document.getContentType())) {
+            return;
+        }
+
+        long start = System.currentTimeMillis();
+        String text;
+        try (InputStream in = documentService.openDocumentContent(documentId)) {
+            text = extractText(in, isPdf(document.getContentType()));
+        } catch (IOException | RuntimeException e) {
+            // Damaged or encrypted files stay unsearchable
+            log.warn("Could not extract text of document {}: {}", documentId, e.getMessage());
+            return;
+        }
+
+        List<String> terms = ArabicTextNormalizer.terms(text);
+        Map<String, Integer> frequencies = new HashMap<>();
+        for (String term : terms) {
+            frequencies.merge(term, 1, Integer::sum);
+        }
+        String version = document.getContentHash() == null ? INLINE_CONTENT : document.getContentHash();
+
+        lock.writeLock().lock();
+        try {
+            removeEntry(documentId);
+            frequencies.forEach((term, count) ->
+                    postings.computeIfAbsent(term, t -> new HashMap<>()).put(documentId, count));
+            documents.put(documentId, new IndexedDocument(version, terms.size(), new HashSet<>(frequencies.keySet())));
+            totalTerms += terms.size();
+            dirty = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        log.info("Indexed document {} ({} terms, {} distinct) in {} ms",
+                documentId, terms.size(), frequencies.size(), System.currentTimeMillis() - start);
+    }
+
+    @Override
+    public void removeDocument(Long documentId) {
+        lock.writeLock().lock();
+        try {
+            if (removeEntry(documentId)) {
+                dirty = true;
+                log.debug("Removed document {} from the index", documentId);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public int indexMissingDocuments() {
+        List<DocumentDTO> existing = documentRepository.findAllMetadata();
+        Set<Long> existingIds = existing.stream().map(DocumentDTO::getDocumentId).collect(Collectors.toSet());
+
+        List<Long> stale = new ArrayList<>();
+        List<Long> missing = new ArrayList<>();
+        lock.readLock().lock();
+        try {
+            documents.keySet().stream().filter(id -> !existingIds.contains(id)).forEach(stale::add);
+            for (DocumentDTO document : existing) {
+                IndexedDocument indexed = documents.get(document.getDocumentId());
+                String version = document.getContentHash() == null ? INLINE_CONTENT : document.getContentHash();
+                if (isIndexable(document.getContentType()) && (indexed == null || !indexed.version().equals(version))) {
+                    missing.add(document.getDocumentId());
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        stale.forEach(this::removeDocument);
+        log.info("Document index backfill: {} to index, {} removed", missing.size(), stale.size());
+        missing.forEach(this::indexDocument);
+        flushIndex();
+        return missing.size();
+    }
+
+    @Override
+    public List<DocumentSearchResultDTO> search(String query, int limit) {
+        Set<String> queryTerms = new LinkedHashSet<>(ArabicTextNormalizer.terms(query));
+        if (queryTerms.isEmpty()) {
+            return List.of();
+        }
+
+        Map<Long, Double> scores = new HashMap<>();
+        lock.readLock().lock();
+        try {
+            int documentCount = documents.size();
+            double averageLength = documentCount == 0 ? 0 : (double) totalTerms / documentCount;
+            for (String term : queryTerms) {
+                Map<Long, Integer> frequencies = postings.get(term);
+                if (frequencies == null) {
+                    continue;
+                }
+                double idf = Math.log(1 + (documentCount - frequencies.size() + 0.5) / (frequencies.size() + 0.5));
+                frequencies.forEach((documentId, tf) -> {
+                    double lengthRatio = averageLength == 0 ? 1 : documents.get(documentId).length() / averageLength;
+                    double score = idf * tf * (K1 + 1) / (tf + K1 * (1 - B + B * lengthRatio));
+                    scores.merge(documentId, score, Double::sum);
+                });
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        return scores.entrySet().stream()
+                .sorted(Map.Entry.<Long, Double>comparingByValue(Comparator.reverseOrder())
+                        .thenComparing(Map.Entry.comparingByKey()))
+                .limit(limit)
+                .map(e -> new DocumentSearchResultDTO(e.getKey(), Math.round(e.getValue() * 1000) / 1000.0))
+                .collect(Collectors.toList());
+    }
+
+    @Scheduled(fixedDelayString = "${app.documents.search.flush-interval:PT1M}")
+    public void flushIndex() {
+        if (!dirty) {
+            return;
+        }
+        lock.readLock().lock();
+        try {
+            dirty = false;
+            Files.createDirectories(indexFile.getParent());
+            Path temp = Files.createTempFile(indexFile.getParent(), "documents-", ".tmp");
+            try {
+                try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+                    writeIndex(out);
+                }
+                Files.move(temp, indexFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+            log.debug("Saved document index with {} documents", documents.size());
+        } catch (IOException e) {
+            dirty = true;
+            log.warn("Failed to save document index: {}", e.getMessage());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        flushIndex();
+    }
+
+    private void writeIndex(DataOutputStream out) throws IOException {
+        out.writeInt(FORMAT_VERSION);
+        out.writeInt(documents.size());
+        for (Map.Entry<Long, IndexedDocument> entry : documents.entrySet()) {
+            out.writeLong(entry.getKey());
+            writeString(out, entry.getValue().version());
+            out.writeInt(entry.getValue().length());
+        }
+        out.writeInt(postings.size());
+        for (Map.Entry<String, Map<Long, Integer>> entry : postings.entrySet()) {
+            writeString(out, entry.getKey());
+            out.writeInt(entry.getValue().size());
+            for (Map.Entry<Long, Integer> posting : entry.getValue().entrySet()) {
+                out.writeLong(posting.getKey());
+                out.writeInt(posting.getValue());
+            }
+        }
+    }
+
+    /**
+     * Strings are length-prefixed UTF-8; writeUTF would fail on anything over 64 KB encoded
+     */
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0 || length > MAX_STRING_BYTES) {
+            throw new IOException("Invalid string length " + length);
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Removes the postings of a document; the caller holds the write lock
+     */
+    private boolean removeEntry(Long documentId) {
+        IndexedDocument previous = documents.remove(documentId);
+        if (previous == null) {
+            return false;
+        }
+        totalTerms -= previous.length();
+        // Only the postings of the document's own terms are touched, not the whole vocabulary
+        for (String term : previous.terms()) {
+            Map<Long, Integer> frequencies = postings.get(term);
+            if (frequencies != null && frequencies.remove(documentId) != null && frequencies.isEmpty()) {
+                postings.remove(term);
+            }
+        }
+        return true;
+    }
+
+    private static String extractText(InputStream in, boolean pdf) throws IOException {
+        if (!pdf) {
+            byte[] bytes = in.readNBytes(MAX_TEXT_CHARS);
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+        try (PDDocument document = PDDocument.load(in, MemoryUsageSetting.setupTempFileOnly())) {
+            PDFTextStripper stripper = new PDFTextStripper();
+            stripper.setSortByPosition(true);
+            String text = stripper.getText(document);
+            return text.length() > MAX_TEXT_CHARS ? text.substring(0, MAX_TEXT_CHARS) : text;
+        }
+    }
+
+    private static boolean isIndexable(String contentType) {
+        MediaType mediaType = parse(contentType);
+        return mediaType != null && ("text".equals(mediaType.getType()) || isPdf(contentType));
+    }
+
+    private static boolean isPdf(String contentType) {
+        MediaType mediaType = parse(contentType);
+        return mediaType != null && MediaType.APPLICATION_PDF.isCompatibleWith(mediaType);
+    }
+
+    private static MediaType parse(String contentType) {
+        if (contentType == null) {
+            return null;
+        }
+        try {
+            return MediaType.parseMediaType(contentType);
+        } catch (InvalidMediaTypeException e) {
+            return null;
+        }
+    }
+
+    private record IndexedDocument(String version, int length, Set<String> terms) {
+    }
+}
@@ -1,50 +1,90 @@
 package com.novavista.binaa.center.services.impl;
 
 import com.novavista.binaa.center.dto.request.DocumentDTO;
+import com.novavista.binaa.center.dto.response.DocumentStorageStatsDTO;
+import com.novavista.binaa.center.dto.response.DocumentStorageUsageDTO;
 import com.novavista.binaa.center.entity.Case;
 import com.novavista.binaa.center.entity.Document;
 import com.novavista.binaa.center.entity.User;
+import com.novavista.binaa.center.enums.DocumentCodec;
 import com.novavista.binaa.center.enums.DocumentType;
+import com.novavista.binaa.center.event.DocumentDeletedEvent;
+import com.novavista.binaa.center.event.DocumentStoredEvent;
+import com.novavista.binaa.center.exceptions.PayloadTooLargeException;
 import com.novavista.binaa.center.exceptions.ResourceNotFoundException;
 import com.novavista.binaa.center.exceptions.ValidationException;
 import com.novavista.binaa.center.mapper.DocumentMapper;
 import com.novavista.binaa.center.repository.CaseRepository;
+import com.novavista.binaa.center.repository.DocumentContentRepository;
 import com.novavista.binaa.center.repository.DocumentRepository;
 import com.novavista.binaa.center.repository.UserRepository;
 import com.novavista.binaa.center.security.SecurityUtils;
 import com.novavista.binaa.center.services.DocumentService;
+import com.novavista.binaa.center.services.DocumentStorage;
+import com.novavista.binaa.center.services.StoredContent;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.unit.DataSize;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
 import java.time.LocalDate;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.regex.Pattern;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
 
 @Service
 @Slf4j
 @Transactional
 public class DocumentServiceImpl implements DocumentService {
+    private static final Pattern UNSAFE_ENTRY_CHARS = Pattern.compile("[\\\\/:*?\"<>|\\p{Cntrl}]");
+
     private final DocumentRepository documentRepository;
+    private final DocumentContentRepository documentContentRepository;
+    private final DocumentStorage documentStorage;
     private final CaseRepository caseRepository;
     private final UserRepository userRepository;
     private final DocumentMapper documentMapper;
     private final SecurityUtils securityUtils;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Value("${app.documents.max-file-size:16MB}")
+    private DataSize maxFileSize;
 
     @Autowired
     public DocumentServiceImpl(DocumentRepository documentRepository,
+                               DocumentContentRepository documentContentRepository,
+                               DocumentStorage documentStorage,
                                CaseRepository caseRepository,
                                UserRepository userRepository,
                                DocumentMapper documentMapper,
-                               SecurityUtils securityUtils) {
+                               SecurityUtils securityUtils,
+                               ApplicationEventPublisher eventPublisher) {
         this.documentRepository = documentRepository;
+        this.documentContentRepository = documentContentRepository;
+        this.documentStorage = documentStorage;
         this.caseRepository = caseRepository;
         this.userRepository = userRepository;
         this.documentMapper = documentMapper;
         this.securityUtils = securityUtils;
+        this.eventPublisher = eventPublisher;
     }
 
     @Override
@@ -57,89 +97,182 @@ public class DocumentServiceImpl implements DocumentService {
         User uploadedBy = userRepository.findById(documentDTO.getUploadedBy())
                 .orElseThrow(() -> new ResourceNotFoundException("User not found"));
 
-        Document document = documentMapper.toEntity(documentDTO);
+        // Built field by field: the ID, hashes, codec and sizes are only ever set by the server
+        Document document = new Document();
+        document.setType(documentDTO.getType());
+        document.setFileName(documentDTO.getFileName());
+        document.setContentType(documentDTO.getContentType());
+        document.setFileSize(documentDTO.getFileSize()); // replaced by the stored size when content is given
         document.setCaseInfo(caseEntity);
         document.setUploadedBy(uploadedBy);
         document.setUploadDate(LocalDate.now());
+        if (documentDTO.getFileData() != null) {
+            storeContent(document, new ByteArrayInputStream(documentDTO.getFileData()));
+        }
 
         Document savedDocument = documentRepository.save(document);
         log.info("Created document with ID: {}", savedDocument.getDocumentId());
-        return documentMapper.toDto(savedDocument);
+        publishStored(savedDocument);
+        return documentMapper.toMetadataDto(savedDocument);
     }
 
     @Override
     @Transactional(readOnly = true)
     public DocumentDTO getDocumentById(Long id) {
-        return documentRepository.findById(id)
-                .map(documentMapper::toDto)
+        return documentRepository.findMetadataById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Document not found"));
     }
 
     @Override
     @Transactional(readOnly = true)
     public List<DocumentDTO> getDocumentsByCase(Long caseId) {
-        Case caseEntity = caseRepository.findById(caseId)
-                .orElseThrow(() -> new ResourceNotFoundException("Case not found"));
-        return documentMapper.toDtoList(documentRepository.findByCaseInfo(caseEntity));
+        if (!caseRepository.existsById(caseId)) {
+            throw new ResourceNotFoundException("Case not found");
+        }
+        return documentRepository.findMetadataByCaseId(caseId);
     }
 
     @Override
     @Transactional(readOnly = true)
     public List<DocumentDTO> getDocumentsByType(DocumentType type) {
-        return documentMapper.toDtoList(documentRepository.findByType(type));
+        return documentRepository.findMetadataByType(type);
     }
 
     @Override
     @Transactional(readOnly = true)
     public List<DocumentDTO> getAllDocuments() {
-        return documentMapper.toDtoList(documentRepository.findAll());
+        return documentRepository.findAllMetadata();
     }
     @Override
     public DocumentDTO uploadDocument(MultipartFile file, DocumentType type, Long caseId) {
         log.info("Processing document upload for case ID: {}", caseId);
 
-        try {
-            // Validate file
-            if (file.isEmpty()) {
-                throw new ValidationException("File is empty");
-            }
-            if (file.getSize() > 16_000_000) { // 16MB limit
-                throw new ValidationException("File size exceeds maximum limit of 16MB");
-            }
-
-            // Get current user
-            User currentUser = securityUtils.getCurrentUser();
-
-            // Create document
-            Document document = new Document();
-            document.setType(type);
-            document.setCaseInfo(caseRepository.findById(caseId)
-                    .orElseThrow(() -> new ResourceNotFoundException("Case not found")));
-            document.setFileName(file.getOriginalFilename());
-            document.setContentType(file.getContentType());
-            document.setFileData(file.getBytes());
-            document.setFileSize(file.getSize());
-            document.setUploadDate(LocalDate.now());
-            document.setUploadedBy(currentUser);
-
-            Document savedDocument = documentRepository.save(document);
-            log.info("Document uploaded successfully with ID: {}", savedDocument.getDocumentId());
-
-            // Convert to DTO without file data for response
-            DocumentDTO dto = documentMapper.toDto(savedDocument);
-            dto.setFileData(null); // Don't send file data in response
-            return dto;
+        // Validate file
+        if (file.isEmpty()) {
+            throw new ValidationException("File is empty");
+        }
+        // Reject on the declared size before reading anything
+        if (file.getSize() > maxFileSize.toBytes()) {
+            throw new PayloadTooLargeException("File size exceeds maximum limit of " + maxFileSize.toMegabytes() + "MB");
+        }
 
+        try {
+            return storeDocument(file.getInputStream(), file.getOriginalFilename(), file.getContentType(), type, caseId);
         } catch (IOException e) {
             log.error("Failed to process file upload", e);
             throw new RuntimeException("Failed to process file upload", e);
         }
     }
+
+    @Override
+    public DocumentDTO storeDocument(InputStream content, String fileName, String contentType,
+                                     DocumentType type, Long caseId) {
+        // Get current user
+        User currentUser = securityUtils.getCurrentUser();
+
+        // Create document
+        Document document = new Document();
+        document.setType(type);
+        document.setCaseInfo(caseRepository.findById(caseId)
+                .orElseThrow(() -> new ResourceNotFoundException("Case not found")));
+        document.setFileName(fileName);
+        document.setContentType(contentType);
+        // Stream into storage; the size limit, compression and hashing are applied as bytes arrive
+        storeContent(document, content);
+        if (document.getFileSize() == 0) {
+            throw new ValidationException("File is empty");
+        }
+        document.setUploadDate(LocalDate.now());
+        document.setUploadedBy(currentUser);
+
+        Document savedDocument = documentRepository.save(document);
+        log.info("Document uploaded successfully with ID: {}", savedDocument.getDocumentId());
+        publishStored(savedDocument);
+
+        // Convert to DTO without file data for response
+        return documentMapper.toMetadataDto(savedDocument);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public DocumentDTO getDocumentMetadata(Long id) {
+        return documentRepository.findMetadataById(id)
+                .orElseThrow(() -> new ResourceNotFoundException("Document not found"));
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void writeDocumentContent(Long id, OutputStream out) {
+        writeDocumentContent(id, out, 0, Long.MAX_VALUE);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void writeDocumentContent(Long id, OutputStream out, long offset, long length) {
+        log.debug("Streaming content of document ID: {} from offset {}", id, offset);
+        DocumentRepository.StoredContentView content = documentRepository.findStoredContentById(id).orElse(null);
+        if (content == null || content.getContentHash() == null) {
+            // Not migrated to storage yet, read the inline blob
+            documentContentRepository.copyFileData(id, out, offset, length);
+            return;
+        }
+
+        try (InputStream in = openStoredContent(content)) {
+            copyRange(in, out, offset, length);
+            out.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to stream document " + id, e);
+        }
+    }
+
     @Override
     @Transactional(readOnly = true)
-    public Document getDocumentForDownload(Long id) {
-        return documentRepository.findById(id)
+    public InputStream openDocumentContent(Long id) {
+        DocumentRepository.StoredContentView content = documentRepository.findStoredContentById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Document not found"));
+        try {
+            if (content.getContentHash() != null) {
+                return openStoredContent(content);
+            }
+            // Not migrated to storage yet; spool the inline blob to disk so the caller can read it at its own pace
+            Path spool = Files.createTempFile("document-" + id + "-", ".tmp");
+            try (OutputStream out = Files.newOutputStream(spool)) {
+                documentContentRepository.copyFileData(id, out);
+            } catch (IOException | RuntimeException e) {
+                Files.deleteIfExists(spool);
+                throw e;
+            }
+            return Files.newInputStream(spool, StandardOpenOption.DELETE_ON_CLOSE);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to open document " + id, e);
+        }
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void writeDocumentArchive(List<DocumentDTO> documents, OutputStream out) {
+        log.info("Streaming archive of {} documents", documents.size());
+        Set<String> usedNames = new HashSet<>();
+        try {
+            ZipOutputStream zip = new ZipOutputStream(out);
+            for (DocumentDTO document : documents) {
+                ZipEntry entry = new ZipEntry(uniqueEntryName(document, usedNames));
+                if (document.getUploadDate() != null) {
+                    entry.setTimeLocal(document.getUploadDate().atStartOfDay());
+                }
+                // Images and zipped formats only burn CPU when deflated again
+                zip.setLevel(DocumentCompression.codecFor(document.getContentType()) == DocumentCodec.DEFLATE
+                        ? Deflater.DEFAULT_COMPRESSION
+                        : Deflater.NO_COMPRESSION);
+                zip.putNextEntry(entry);
+                writeDocumentContent(document.getDocumentId(), zip);
+                zip.closeEntry();
+            }
+            zip.finish();
+            out.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write document archive", e);
+        }
     }
 
     @Override
@@ -149,23 +282,35 @@ public class DocumentServiceImpl implements DocumentService {
                 .orElseThrow(() -> new ResourceNotFoundException("Document not found"));
 
         validateDocument(documentDTO);
-        Document document = documentMapper.toEntity(documentDTO);
-        document.setDocumentId(id);
-        // Preserve relationships
-        document.setCaseInfo(existingDocument.getCaseInfo());
-        document.setUploadedBy(existingDocument.getUploadedBy());
-        document.setUploadDate(existingDocument.getUploadDate());
-
-        Document updatedDocument = documentRepository.save(document);
+        // Update metadata in place; relationships, upload date and content are preserved
+        existingDocument.setType(documentDTO.getType());
+        existingDocument.setFileName(documentDTO.getFileName());
+        existingDocument.setContentType(documentDTO.getContentType());
+        if (existingDocument.getContentHash() == null) {
+            existingDocument.setFileSize(documentDTO.getFileSize());
+        }
+        boolean contentReplaced = documentDTO.getFileData() != null;
+        if (contentReplaced) {
+            // The replaced content and preview are removed by the sweep once nothing references them
+            storeContent(existingDocument, new ByteArrayInputStream(documentDTO.getFileData()));
+            existingDocument.setPreviewHash(null);
+        }
+
+        Document updatedDocument = documentRepository.save(existingDocument);
         log.info("Updated document ID: {}", id);
-        return documentMapper.toDto(updatedDocument);
+        if (contentReplaced) {
+            publishStored(updatedDocument);
+        }
+        return documentMapper.toMetadataDto(updatedDocument);
     }
 
     @Override
     public void deleteDocument(Long id) {
         log.info("Deleting document ID: {}", id);
         try {
+            // Stored content is removed by the sweep once nothing references it
             documentRepository.deleteById(id);
+            eventPublisher.publishEvent(new DocumentDeletedEvent(id));
             log.info("Deleted document ID: {}", id);
         } catch (DataIntegrityViolationException e) {
             log.error("Failed to delete document: {}", e.getMessage());
@@ -173,6 +318,85 @@ public class DocumentServiceImpl implements DocumentService {
         }
     }
 
+    private static void copyRange(InputStream in, OutputStream out, long offset, long length) throws IOException {
+        in.skipNBytes(offset);
+        byte[] buffer = new byte[8192];
+        long remaining = length;
+        while (remaining > 0) {
+            int read = in.read(buffer, 0, (int) Math.min(buffer.length, remaining));
+            if (read == -1) {
+                break;
+            }
+            out.write(buffer, 0, read);
+            remaining -= read;
+        }
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public DocumentStorageStatsDTO getStorageStats() {
+        List<DocumentStorageUsageDTO> byCodec = documentRepository.summarizeStorageByCodec();
+        long documentCount = byCodec.stream().mapToLong(DocumentStorageUsageDTO::getDocumentCount).sum();
+        long originalBytes = byCodec.stream().mapToLong(DocumentStorageUsageDTO::getOriginalBytes).sum();
+        long storedBytes = byCodec.stream().mapToLong(DocumentStorageUsageDTO::getStoredBytes).sum();
+        long savedBytes = originalBytes - storedBytes;
+        double savedPercent = originalBytes == 0 ? 0.0 : Math.round(savedBytes * 1000.0 / originalBytes) / 10.0;
+
+        return new DocumentStorageStatsDTO(documentCount, originalBytes, storedBytes, savedBytes, savedPercent,
+                documentRepository.sumDistinctStoredSize(), byCodec);
+    }
+
+    /**
+     * Writes the content of a document to storage, deflating it when its type compresses well.
+     * Sets the content hash, codec and both sizes on the document; the size limit applies to
+     * the original bytes.
+     */
+    private void storeContent(Document document, InputStream content) {
+        DocumentCodec codec = DocumentCompression.codecFor(document.getContentType());
+        SizeLimitedInputStream raw = new SizeLimitedInputStream(content, maxFileSize.toBytes());
+        StoredContent stored;
+        try {
+            stored = documentStorage.store(DocumentCompression.encode(raw, codec));
+        } catch (IOException e) {
+            log.error("Failed to store document content", e);
+            throw new UncheckedIOException("Failed to store document content", e);
+        }
+        log.debug("Stored {} bytes as {} {} bytes", raw.getCount(), codec, stored.getSize());
+
+        document.setContentHash(stored.getContentHash());
+        document.setCodec(codec);
+        document.setFileSize(raw.getCount());
+        document.setStoredSize(stored.getSize());
+        document.setFileData(null);
+    }
+
+    private InputStream openStoredContent(DocumentRepository.StoredContentView content) throws IOException {
+        return DocumentCompression.decode(documentStorage.open(content.getContentHash()), content.getCodec());
+    }
+
+    private static String uniqueEntryName(DocumentDTO document, Set<String> usedNames) {
+        String name = document.getFileName() == null ? "" : UNSAFE_ENTRY_CHARS.matcher(document.getFileName()).replaceAll("_").trim();
+        if (name.isEmpty()) {
+            name = "document-" + document.getDocumentId();
+        }
+        int dot = name.lastIndexOf('.');
+        String base = dot > 0 ? name.substring(0, dot) : name;
+        String extension = dot > 0 ? name.substring(dot) : "";
+
+        String candidate = name;
+        for (int i = 2; !usedNames.add(candidate.toLowerCase()); i++) {
+            candidate = base + " (" + i + ")" + extension;
+        }
+        return candidate;
+    }
+
+    private void publishStored(Document document) {
+        if (document.getContentHash() != null) {
+            eventPublisher.publishEvent(new DocumentStoredEvent(
+                    document.getDocumentId(), document.getContentHash(), document.getContentType()));
+        }
+    }
+
     private void validateDocument(DocumentDTO documentDTO) {
         // Validate Document Type
         if (documentDTO.getType() == null) {
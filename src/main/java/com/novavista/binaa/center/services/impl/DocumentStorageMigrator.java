@@ -0,0 +1,104 @@
+package com.novavista.binaa.center.services.impl;
+
+import com.novavista.binaa.center.dto.request.DocumentDTO;
+import com.novavista.binaa.center.enums.DocumentCodec;
+import com.novavista.binaa.center.repository.DocumentContentRepository;
+import com.novavista.binaa.center.repository.DocumentRepository;
+import com.novavista.binaa.center.services.DocumentStorage;
+import com.novavista.binaa.center.services.StoredContent;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Moves payloads still held in {@code documents.file_data} into {@link DocumentStorage}.
+ * Progress is tracked by the rows themselves (a migrated row has a content hash and
+ * no inline data), so an interrupted run simply continues on the next start.
+ */
+@Component
+@Slf4j
+public class DocumentStorageMigrator {
+    private static final int BATCH_SIZE = 20;
+
+    private final DocumentRepository documentRepository;
+    private final DocumentContentRepository documentContentRepository;
+    private final DocumentStorage documentStorage;
+
+    @Value("${app.file-storage.migrate-on-startup:true}")
+    private boolean migrateOnStartup;
+
+    @Autowired
+    public DocumentStorageMigrator(DocumentRepository documentRepository,
+                                   DocumentContentRepository documentContentRepository,
+                                   DocumentStorage documentStorage) {
+        this.documentRepository = documentRepository;
+        this.documentContentRepository = documentContentRepository;
+        this.documentStorage = documentStorage;
+    }
+
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    public void migrateOnStartup() {
+        if (migrateOnStartup) {
+            migrateInlineDocuments();
+        }
+    }
+
+    /**
+     * Externalizes all inline document payloads
+     * @return number of documents migrated
+     */
+    public int migrateInlineDocuments() {
+        log.info("Starting migration of inline document data to storage");
+        int migrated = 0;
+        int failed = 0;
+        long lastId = 0;
+
+        List<Long> batch;
+        while (!(batch = documentContentRepository.findIdsWithInlineFileData(lastId, BATCH_SIZE)).isEmpty()) {
+            for (Long documentId : batch) {
+                lastId = documentId;
+                try {
+                    if (migrateDocument(documentId)) {
+                        migrated++;
+                    }
+                } catch (Exception e) {
+                    failed++;
+                    log.error("Failed to migrate data of document ID: {}", documentId, e);
+                }
+            }
+            log.info("Document storage migration progress: {} migrated, {} failed, last ID {}",
+                    migrated, failed, lastId);
+        }
+
+        log.info("Finished document storage migration: {} migrated, {} failed", migrated, failed);
+        return migrated;
+    }
+
+    private boolean migrateDocument(Long documentId) {
+        DocumentCodec codec = DocumentCompression.codecFor(documentRepository.findMetadataById(documentId)
+                .map(DocumentDTO::getContentType)
+                .orElse(null));
+        long[] originalSize = new long[1];
+        Optional<StoredContent> stored = documentContentRepository.readFileData(documentId, in -> {
+            SizeLimitedInputStream raw = new SizeLimitedInputStream(in, Long.MAX_VALUE);
+            StoredContent content = documentStorage.store(DocumentCompression.encode(raw, codec));
+            originalSize[0] = raw.getCount();
+            return content;
+        });
+        if (stored.isEmpty()) {
+            return false;
+        }
+        boolean updated = documentContentRepository.markExternalized(documentId, stored.get().getContentHash(),
+                codec, originalSize[0], stored.get().getSize());
+        log.debug("Migrated document ID: {} to {} as {}", documentId, stored.get().getContentHash(), codec);
+        return updated;
+    }
+}
@@ -0,0 +1,393 @@
+package com.novavista.binaa.center.services.impl;
+
+import com.novavista.binaa.center.dto.request.DocumentDTO;
+import com.novavista.binaa.center.dto.request.DocumentUploadRequestDTO;
+import com.novavista.binaa.center.dto.response.DocumentUploadStatusDTO;
+import com.novavista.binaa.center.entity.Case;
+import com.novavista.binaa.center.entity.DocumentUpload;
+import com.novavista.binaa.center.enums.UploadStatus;
+import com.novavista.binaa.center.exceptions.PayloadTooLargeException;
+import com.novavista.binaa.center.exceptions.ResourceNotFoundException;
+import com.novavista.binaa.center.exceptions.ValidationException;
+import com.novavista.binaa.center.repository.CaseRepository;
+import com.novavista.binaa.center.repository.DocumentUploadRepository;
+import com.novavista.binaa.center.security.SecurityUtils;
+import com.novavista.binaa.center.services.DocumentService;
+import com.novavista.binaa.center.services.DocumentUploadService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.FileSystemUtils;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.SequenceInputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+@Service
+@Slf4j
+@Transactional
+public class DocumentUploadServiceImpl implements DocumentUploadService {
+    private static final int DEFAULT_CHUNK_SIZE = 1024 * 1024;
+    private static final int MIN_CHUNK_SIZE = 64 * 1024;
+    private static final int MAX_CHUNK_SIZE = 8 * 1024 * 1024;
+    private static final Duration UPLOAD_TTL = Duration.ofHours(24);
+    // Leaves the directory of an upload that is still being created alone
+    private static final Duration ORPHAN_GRACE = Duration.ofHours(1);
+    private static final String CHUNK_SUFFIX = ".part";
+
+    private final DocumentUploadRepository documentUploadRepository;
+    private final CaseRepository caseRepository;
+    private final DocumentService documentService;
+    private final SecurityUtils securityUtils;
+    private final Path uploadsRoot;
+
+    @Value("${app.documents.max-file-size:16MB}")
+    private DataSize maxFileSize;
+
+    @Autowired
+    public DocumentUploadServiceImpl(DocumentUploadRepository documentUploadRepository,
+                                     CaseRepository caseRepository,
+                                     DocumentService documentService,
+                                     SecurityUtils securityUtils,
+                                     @Value("${app.file-storage.location:uploads}") String location) {
+        this.documentUploadRepository = documentUploadRepository;
+        this.caseRepository = caseRepository;
+        this.documentService = documentService;
+        this.securityUtils = securityUtils;
+        this.uploadsRoot = Paths.get(location).toAbsolutePath().normalize().resolve("chunked-uploads");
+    }
+
+    @Override
+    public DocumentUploadStatusDTO createUpload(DocumentUploadRequestDTO request) {
+        log.info("Creating chunked upload for case ID: {}", request.getCaseId());
+        validateUploadRequest(request);
+
+        Case caseEntity = caseRepository.findById(request.getCaseId())
+                .orElseThrow(() -> new ResourceNotFoundException("Case not found"));
+
+        int chunkSize = request.getChunkSize() != null ? request.getChunkSize() : DEFAULT_CHUNK_SIZE;
+        LocalDateTime now = LocalDateTime.now();
+
+        DocumentUpload upload = new DocumentUpload();
+        upload.setUploadId(UUID.randomUUID().toString());
+        upload.setCaseInfo(caseEntity);
+        upload.setType(request.getType());
+        upload.setFileName(request.getFileName());
+        upload.setContentType(request.getContentType());
+        upload.setTotalSize(request.getTotalSize());
+        upload.setChunkSize(chunkSize);
+        upload.setTotalChunks((int) ((request.getTotalSize() + chunkSize - 1) / chunkSize));
+        upload.setStatus(UploadStatus.IN_PROGRESS);
+        upload.setCreatedBy(securityUtils.getCurrentUser());
+        upload.setCreatedAt(now);
+        upload.setExpiresAt(now.plus(UPLOAD_TTL));
+
+        DocumentUpload savedUpload = documentUploadRepository.save(upload);
+        // Created once here; chunks never recreate it, so a removed upload cannot leave it behind
+        try {
+            Files.createDirectories(chunkDirectory(savedUpload.getUploadId()));
+        } catch (IOException e) {
+            log.error("Failed to create chunk directory of upload {}", savedUpload.getUploadId(), e);
+            throw new UncheckedIOException("Failed to create upload", e);
+        }
+        log.info("Created upload {} with {} chunks", savedUpload.getUploadId(), savedUpload.getTotalChunks());
+        return toStatusDto(savedUpload);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public DocumentUploadStatusDTO getUpload(String uploadId) {
+        return toStatusDto(findUpload(uploadId));
+    }
+
+    @Override
+    // The upload row is read in its own short transaction; no connection is held while the chunk streams in
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public DocumentUploadStatusDTO writeChunk(String uploadId, int index, InputStream content) {
+        DocumentUpload upload = findUpload(uploadId);
+        if (upload.getStatus() != UploadStatus.IN_PROGRESS) {
+            throw new ValidationException("Upload is already completed");
+        }
+        if (upload.getExpiresAt() != null && upload.getExpiresAt().isBefore(LocalDateTime.now())) {
+            throw new ValidationException("Upload has expired");
+        }
+        if (index < 0 || index >= upload.getTotalChunks()) {
+            throw new ValidationException("Chunk index must be between 0 and " + (upload.getTotalChunks() - 1));
+        }
+
+        long expectedSize = index == upload.getTotalChunks() - 1
+                ? upload.getTotalSize() - (long) index * upload.getChunkSize()
+                : upload.getChunkSize();
+
+        Path directory = chunkDirectory(uploadId);
+        Path temp = null;
+        try {
+            if (!Files.isDirectory(directory)) {
+                throw new ResourceNotFoundException("Upload not found");
+            }
+            temp = Files.createTempFile(directory, index + "-", ".tmp");
+            long written;
+            try (InputStream in = new SizeLimitedInputStream(content, expectedSize);
+                 OutputStream out = Files.newOutputStream(temp)) {
+                written = in.transferTo(out);
+            }
+            if (written != expectedSize) {
+                throw new ValidationException("Chunk " + index + " must be " + expectedSize
+                        + " bytes but was " + written);
+            }
+            // Publish the chunk only once it is complete, so a dropped transfer leaves no partial chunk
+            Files.move(temp, chunkPath(directory, index),
+                    StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (PayloadTooLargeException e) {
+            throw new ValidationException("Chunk " + index + " exceeds " + expectedSize + " bytes");
+        } catch (NoSuchFileException e) {
+            // Completed, aborted or expired while the chunk was streaming
+            throw new ResourceNotFoundException("Upload not found");
+        } catch (IOException e) {
+            log.error("Failed to store chunk {} of upload {}", index, uploadId, e);
+            throw new UncheckedIOException("Failed to store chunk", e);
+        } finally {
+            deleteQuietly(temp);
+        }
+
+        log.debug("Stored chunk {} of upload {}", index, uploadId);
+        return toStatusDto(upload);
+    }
+
+    @Override
+    public DocumentDTO completeUpload(String uploadId) {
+        log.info("Completing upload {}", uploadId);
+        DocumentUpload upload = documentUploadRepository.findByIdForUpdate(uploadId)
+                .orElseThrow(() -> new ResourceNotFoundException("Upload not found"));
+
+        // Completing twice returns the same document
+        if (upload.getStatus() == UploadStatus.COMPLETED) {
+            return documentService.getDocumentById(upload.getDocumentId());
+        }
+
+        List<Integer> missing = missingChunks(upload);
+        if (!missing.isEmpty()) {
+            throw new ValidationException("Missing chunks: " + missing);
+        }
+
+        DocumentDTO document;
+        try (InputStream content = openAssembledContent(upload)) {
+            document = documentService.storeDocument(content, upload.getFileName(), upload.getContentType(),
+                    upload.getType(), upload.getCaseInfo().getCaseId());
+        } catch (IOException e) {
+            log.error("Failed to assemble upload {}", uploadId, e);
+            throw new UncheckedIOException("Failed to assemble upload", e);
+        }
+
+        upload.setStatus(UploadStatus.COMPLETED);
+        upload.setDocumentId(document.getDocumentId());
+        documentUploadRepository.save(upload);
+        deleteChunksAfterCommit(uploadId);
+
+        log.info("Upload {} stored as document ID: {}", uploadId, document.getDocumentId());
+        return document;
+    }
+
+    @Override
+    public void abortUpload(String uploadId) {
+        log.info("Aborting upload {}", uploadId);
+        DocumentUpload upload = findUpload(uploadId);
+        documentUploadRepository.delete(upload);
+        deleteChunksAfterCommit(uploadId);
+    }
+
+    @Scheduled(fixedDelayString = "PT1H", initialDelayString = "PT5M")
+    public void removeExpiredUploads() {
+        List<DocumentUpload> expired = documentUploadRepository.findByExpiresAtBefore(LocalDateTime.now());
+        if (expired.isEmpty()) {
+            return;
+        }
+        for (DocumentUpload upload : expired) {
+            documentUploadRepository.delete(upload);
+            deleteChunksAfterCommit(upload.getUploadId());
+        }
+        log.info("Removed {} expired uploads", expired.size());
+    }
+
+    /**
+     * Removes chunk directories whose upload is gone or no longer in progress, e.g.
+     * when deleting them after commit failed or the creating transaction rolled back
+     */
+    @Scheduled(fixedDelayString = "PT1H", initialDelayString = "PT10M")
+    @Transactional(readOnly = true)
+    public void removeOrphanedChunks() {
+        if (!Files.isDirectory(uploadsRoot)) {
+            return;
+        }
+        FileTime cutoff = FileTime.from(Instant.now().minus(ORPHAN_GRACE));
+        int removed = 0;
+        try (Stream<Path> directories = Files.list(uploadsRoot)) {
+            for (Path directory : (Iterable<Path>) directories.filter(Files::isDirectory)::iterator) {
+                String uploadId = directory.getFileName().toString();
+                if (Files.getLastModifiedTime(directory).compareTo(cutoff) >= 0 || isInProgress(uploadId)) {
+                    continue;
+                }
+                FileSystemUtils.deleteRecursively(directory);
+                removed++;
+            }
+        } catch (IOException e) {
+            log.warn("Failed to remove orphaned chunks: {}", e.getMessage());
+        }
+        if (removed > 0) {
+            log.info("Removed chunks of {} orphaned uploads", removed);
+        }
+    }
+
+    private boolean isInProgress(String uploadId) {
+        return documentUploadRepository.findById(uploadId)
+                .map(upload -> upload.getStatus() == UploadStatus.IN_PROGRESS)
+                .orElse(false);
+    }
+
+    private DocumentUpload findUpload(String uploadId) {
+        return documentUploadRepository.findById(uploadId)
+                .orElseThrow(() -> new ResourceNotFoundException("Upload not found"));
+    }
+
+    private void validateUploadRequest(DocumentUploadRequestDTO request) {
+        if (request.getTotalSize() == null || request.getTotalSize() <= 0) {
+            throw new ValidationException("Valid total size is required");
+        }
+        if (request.getTotalSize() > maxFileSize.toBytes()) {
+            throw new PayloadTooLargeException("File size exceeds maximum limit of " + maxFileSize.toMegabytes() + "MB");
+        }
+        if (request.getChunkSize() != null
+                && (request.getChunkSize() < MIN_CHUNK_SIZE || request.getChunkSize() > MAX_CHUNK_SIZE)) {
+            throw new ValidationException("Chunk size must be between " + MIN_CHUNK_SIZE + " and "
+                    + MAX_CHUNK_SIZE + " bytes");
+        }
+    }
+
+    private DocumentUploadStatusDTO toStatusDto(DocumentUpload upload) {
+        return new DocumentUploadStatusDTO(
+                upload.getUploadId(),
+                upload.getCaseInfo().getCaseId(),
+                upload.getType(),
+                upload.getFileName(),
+                upload.getContentType(),
+                upload.getTotalSize(),
+                upload.getChunkSize(),
+                upload.getTotalChunks(),
+                upload.getStatus() == UploadStatus.IN_PROGRESS ? receivedChunks(upload.getUploadId()) : List.of(),
+                upload.getStatus(),
+                upload.getExpiresAt(),
+                upload.getDocumentId());
+    }
+
+    private List<Integer> receivedChunks(String uploadId) {
+        Path directory = chunkDirectory(uploadId);
+        if (!Files.isDirectory(directory)) {
+            return List.of();
+        }
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.map(path -> path.getFileName().toString())
+                    .filter(name -> name.endsWith(CHUNK_SUFFIX))
+                    .map(name -> Integer.valueOf(name.substring(0, name.length() - CHUNK_SUFFIX.length())))
+                    .sorted()
+                    .collect(Collectors.toList());
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to list chunks", e);
+        }
+    }
+
+    private List<Integer> missingChunks(DocumentUpload upload) {
+        List<Integer> received = receivedChunks(upload.getUploadId());
+        return IntStream.range(0, upload.getTotalChunks())
+                .filter(index -> !received.contains(index))
+                .boxed()
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Chains the chunk files into one stream, opening each file only when it is reached
+     */
+    private InputStream openAssembledContent(DocumentUpload upload) {
+        Path directory = chunkDirectory(upload.getUploadId());
+        int totalChunks = upload.getTotalChunks();
+        Enumeration<InputStream> chunks = new Enumeration<>() {
+            private int next = 0;
+
+            @Override
+            public boolean hasMoreElements() {
+                return next < totalChunks;
+            }
+
+            @Override
+            public InputStream nextElement() {
+                if (next >= totalChunks) {
+                    throw new NoSuchElementException();
+                }
+                try {
+                    return Files.newInputStream(chunkPath(directory, next++));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        };
+        return new SequenceInputStream(chunks);
+    }
+
+    private Path chunkDirectory(String uploadId) {
+        // Parsing rejects anything that is not a UUID before it reaches the filesystem
+        return uploadsRoot.resolve(UUID.fromString(uploadId).toString());
+    }
+
+    private static Path chunkPath(Path directory, int index) {
+        return directory.resolve(index + CHUNK_SUFFIX);
+    }
+
+    private void deleteChunksAfterCommit(String uploadId) {
+        Path directory = chunkDirectory(uploadId);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                try {
+                    FileSystemUtils.deleteRecursively(directory);
+                } catch (IOException e) {
+                    log.warn("Failed to delete chunks of upload {}: {}", uploadId, e.getMessage());
+                }
+            }
+        });
+    }
+
+    private static void deleteQuietly(Path path) {
+        if (path == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            log.warn("Failed to delete temp file {}: {}", path, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package com.novavista.binaa.center.services.impl;
+
+import com.novavista.binaa.center.services.DocumentStorage;
+import com.novavista.binaa.center.services.StoredContent;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Filesystem backend for {@link DocumentStorage}. Payloads live under
+ * {@code <location>/documents/ab/cd/<sha256>}; uploads are written to a temp file
+ * first and renamed into place once their hash is known. Publishing a payload and
+ * deleting it are serialized per hash with striped locks, and a deduplicated store
+ * refreshes the file time, which is what the sweep of unused payloads goes by.
+ */
+@Service
+@Slf4j
+@ConditionalOnProperty(name = "app.file-storage.type", havingValue = "local", matchIfMissing = true)
+public class LocalDocumentStorage implements DocumentStorage {
+    private static final Pattern CONTENT_HASH = Pattern.compile("^[0-9a-f]{64}$");
+    private static final int LOCK_STRIPES = 64;
+
+    private final Path documentsRoot;
+    private final Path tempRoot;
+    private final Object[] locks = new Object[LOCK_STRIPES];
+
+    public LocalDocumentStorage(@Value("${app.file-storage.location:uploads}") String location) {
+        Path root = Paths.get(location).toAbsolutePath().normalize();
+        this.documentsRoot = root.resolve("documents");
+        this.tempRoot = root.resolve("tmp");
+        for (int i = 0; i < LOCK_STRIPES; i++) {
+            locks[i] = new Object();
+        }
+        log.info("Using local document storage at {}", root);
+    }
+
+    @Override
+    public StoredContent store(InputStream content) throws IOException {
+        Files.createDirectories(tempRoot);
+        Path temp = Files.createTempFile(tempRoot, "content-", ".part");
+        try {
+            MessageDigest digest = newDigest();
+            long size;
+            try (InputStream in = new DigestInputStream(content, digest);
+                 OutputStream out = Files.newOutputStream(temp)) {
+                size = in.transferTo(out);
+            }
+
+            String contentHash = HexFormat.of().formatHex(digest.digest());
+            Path target = resolve(contentHash);
+            synchronized (lockFor(contentHash)) {
+                if (Files.exists(target)) {
+                    // Counts as a fresh store, so the sweep leaves the file to the new reference
+                    Files.setLastModifiedTime(target, FileTime.from(Instant.now()));
+                    log.debug("Content {} already stored, skipping write", contentHash);
+                    return new StoredContent(contentHash, size, true);
+                }
+
+                Files.createDirectories(target.getParent());
+                try {
+                    Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+                } catch (FileAlreadyExistsException e) {
+                    return new StoredContent(contentHash, size, true);
+                }
+            }
+            log.debug("Stored {} bytes as {}", size, contentHash);
+            return new StoredContent(contentHash, size, false);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    @Override
+    public InputStream open(String contentHash) throws IOException {
+        return Files.newInputStream(resolve(contentHash));
+    }
+
+    @Override
+    public boolean exists(String contentHash) {
+        return Files.exists(resolve(contentHash));
+    }
+
+    @Override
+    public void delete(String contentHash) throws IOException {
+        Path target = resolve(contentHash);
+        synchronized (lockFor(contentHash)) {
+            if (Files.deleteIfExists(target)) {
+                log.debug("Deleted stored content {}", contentHash);
+            }
+        }
+    }
+
+    @Override
+    public int deleteUnused(Instant storedBefore, Predicate<String> inUse) throws IOException {
+        if (!Files.isDirectory(documentsRoot)) {
+            return 0;
+        }
+        FileTime cutoff = FileTime.from(storedBefore);
+        int deleted = 0;
+        try (Stream<Path> files = Files.walk(documentsRoot)) {
+            for (Path file : (Iterable<Path>) files.filter(Files::isRegularFile)::iterator) {
+                String contentHash = file.getFileName().toString();
+                if (!CONTENT_HASH.matcher(contentHash).matches()) {
+                    continue;
+                }
+                synchronized (lockFor(contentHash)) {
+                    try {
+                        if (Files.getLastModifiedTime(file).compareTo(cutoff) >= 0 || inUse.test(contentHash)) {
+                            continue;
+                        }
+                        Files.delete(file);
+                        deleted++;
+                        log.debug("Deleted unused content {}", contentHash);
+                    } catch (NoSuchFileException e) {
+                        // Removed meanwhile
+                    }
+                }
+            }
+        }
+        return deleted;
+    }
+
+    private Object lockFor(String contentHash) {
+        return locks[Integer.parseInt(contentHash.substring(0, 2), 16) % LOCK_STRIPES];
+    }
+
+    private Path resolve(String contentHash) {
+        if (contentHash == null || !CONTENT_HASH.matcher(contentHash).matches()) {
+            throw new IllegalArgumentException("Invalid content hash: " + contentHash);
+        }
+        return documentsRoot
+                .resolve(contentHash.substring(0, 2))
+                .resolve(contentHash.substring(2, 4))
+                .resolve(contentHash);
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -1,37 +1,85 @@
 package com.novavista.binaa.center.services.impl;
 
+import com.novavista.binaa.center.enums.FormOutputMode;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.fontbox.ttf.TTFParser;
+import org.apache.fontbox.ttf.TrueTypeFont;
 import org.apache.pdfbox.pdmodel.PDDocument;
 import org.apache.pdfbox.pdmodel.PDResources;
 import org.apache.pdfbox.pdmodel.font.PDType0Font;
 import org.apache.pdfbox.pdmodel.interactive.form.PDAcroForm;
 import org.apache.pdfbox.pdmodel.interactive.form.PDField;
 import org.apache.pdfbox.pdmodel.interactive.form.PDTextField;
+import org.apache.pdfbox.pdmodel.interactive.form.PDVariableText;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
 import org.springframework.stereotype.Service;
 
+import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
+import java.util.HashSet;
 import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
 
+/**
+ * Fills AcroForm templates. Templates and the Arabic font are read and parsed once
+ * and kept in memory; each request works on its own copy loaded from the cached
+ * bytes. A changed template or font file is picked up on the next request after
+ * the check interval, without a restart.
+ */
 @Service
+@Slf4j
 public class PDFService {
-    private static final String TEMPLATES_PATH = "pdf-templates/";
     private static final String ARABIC_FONT_PATH = "fonts/arabic.ttf";
+    private static final int MAX_POOLED_FONTS = 8;
+
+    private final ResourceLoader resourceLoader;
+    private final String templatesLocation;
+    private final long checkIntervalMillis;
+
+    private final Map<String, CachedTemplate> templates = new ConcurrentHashMap<>();
+    private volatile CachedFont font;
+
+    public PDFService(ResourceLoader resourceLoader,
+                      @Value("${app.pdf.templates-location:classpath:pdf-templates/}") String templatesLocation,
+                      @Value("${app.pdf.cache-check-interval:PT5S}") Duration checkInterval) {
+        this.resourceLoader = resourceLoader;
+        this.templatesLocation = templatesLocation.endsWith("/") ? templatesLocation : templatesLocation + "/";
+        this.checkIntervalMillis = checkInterval.toMillis();
+    }
 
     public byte[] fillFormTemplate(String templateName, Map<String, String> formFields) throws IOException {
-        try (PDDocument document = loadTemplate(templateName)) {
-            PDAcroForm form = document.getDocumentCatalog().getAcroForm();
+        return fillFormTemplate(templateName, formFields, FormOutputMode.EDITABLE);
+    }
 
-            if (form == null) {
-                throw new IllegalStateException("No form found in template");
-            }
+    /**
+     * Fills a form template. {@link FormOutputMode#FLATTENED} shapes and reorders
+     * Arabic text with ICU, builds the field appearances here with a subset of the
+     * font, and prints them into the page, so viewers have no layout work left.
+     */
+    public byte[] fillFormTemplate(String templateName, Map<String, String> formFields,
+                                   FormOutputMode mode) throws IOException {
+        boolean flatten = mode == FormOutputMode.FLATTENED;
+        CachedTemplate template = getTemplate(templateName);
+        CachedFont cachedFont = getFont();
+        TrueTypeFont trueTypeFont = cachedFont.borrow();
+
+        try (PDDocument document = PDDocument.load(template.bytes)) {
+            PDAcroForm form = document.getDocumentCatalog().getAcroForm();
 
-            // Enable Unicode text handling
-            form.setNeedAppearances(true);
+            // Editable output leaves text layout to the viewer; flattened output builds appearances on setValue
+            form.setNeedAppearances(!flatten);
 
-            // Load Arabic font
-            ClassPathResource fontResource = new ClassPathResource(ARABIC_FONT_PATH);
-            PDType0Font arabicFont = PDType0Font.load(document, fontResource.getInputStream());
+            // Embed the Arabic font from the already parsed font program, subset to the glyphs used
+            PDType0Font arabicFont = PDType0Font.load(document, trueTypeFont, true);
 
             // Create default resources with Arabic font
             PDResources resources = new PDResources();
@@ -41,24 +89,199 @@ public class PDFService {
             form.setDefaultResources(resources);
             String defaultAppearance = String.format("/%s 12 Tf 0 g", fontName);
 
-            // Fill form fields with Arabic text support
-            for (Map.Entry<String, String> field : formFields.entrySet()) {
-                PDField formField = form.getField(field.getKey());
-                if (formField instanceof PDTextField textField) {
+            // Fill form fields with Arabic text support, walking the field tree once
+            for (PDField formField : form.getFieldTree()) {
+                if (formField instanceof PDTextField textField && formFields.containsKey(textField.getFullyQualifiedName())) {
+                    String value = formFields.get(textField.getFullyQualifiedName());
                     textField.setDefaultAppearance(defaultAppearance);
-                    textField.setValue(field.getValue());
+                    if (flatten && value != null) {
+                        if (BidiText.isRightToLeft(value)) {
+                            textField.setQ(PDVariableText.QUADDING_RIGHT);
+                        }
+                        value = BidiText.toVisualOrder(value);
+                    }
+                    textField.setValue(value);
                 }
             }
+            if (flatten) {
+                form.flatten();
+            }
+            if (log.isDebugEnabled()) {
+                formFields.keySet().stream()
+                        .filter(name -> !template.textFields.contains(name))
+                        .forEach(name -> log.debug("Template {} has no text field {}", templateName, name));
+            }
 
             // Convert to byte array
-            ByteArrayOutputStream baos = new ByteArrayOutputStream();
+            ByteArrayOutputStream baos = new ByteArrayOutputStream(template.bytes.length + 64 * 1024);
             document.save(baos);
             return baos.toByteArray();
+        } finally {
+            // Subsetting reads the font program during save, so it is only released afterwards
+            cachedFont.release(trueTypeFont);
+        }
+    }
+
+    /**
+     * Names of the text fields a template offers
+     */
+    public Set<String> getTextFieldNames(String templateName) throws IOException {
+        return Set.copyOf(getTemplate(templateName).textFields);
+    }
+
+    /**
+     * Identifies the current template and font files, so cached output can be
+     * told apart from output rendered with files that have since changed
+     */
+    public String getRenderVersion(String templateName) throws IOException {
+        return getTemplate(templateName).lastModified + ":" + getFont().lastModified;
+    }
+
+    /**
+     * Identifies the current font file
+     */
+    public String getFontVersion() throws IOException {
+        return String.valueOf(getFont().lastModified);
+    }
+
+    /**
+     * Lends a parsed copy of the Arabic font to the callback, for documents built
+     * from scratch rather than from a template
+     */
+    <T> T withArabicFont(FontCallback<T> callback) throws IOException {
+        CachedFont cachedFont = getFont();
+        TrueTypeFont trueTypeFont = cachedFont.borrow();
+        try {
+            return callback.apply(trueTypeFont);
+        } finally {
+            cachedFont.release(trueTypeFont);
+        }
+    }
+
+    private CachedTemplate getTemplate(String templateName) throws IOException {
+        CachedTemplate cached = templates.get(templateName);
+        long now = System.currentTimeMillis();
+        if (cached != null && now - cached.checkedAt < checkIntervalMillis) {
+            return cached;
+        }
+
+        Resource resource = resourceLoader.getResource(templatesLocation + templateName);
+        long lastModified = lastModified(resource);
+        if (cached != null && cached.lastModified == lastModified) {
+            cached.checkedAt = now;
+            return cached;
+        }
+
+        CachedTemplate loaded = loadTemplate(resource, lastModified);
+        loaded.checkedAt = now;
+        templates.put(templateName, loaded);
+        log.info("{} template {} ({} bytes, {} text fields)",
+                cached == null ? "Loaded" : "Reloaded changed", templateName, loaded.bytes.length, loaded.textFields.size());
+        return loaded;
+    }
+
+    private CachedTemplate loadTemplate(Resource resource, long lastModified) throws IOException {
+        byte[] bytes;
+        try (InputStream in = resource.getInputStream()) {
+            bytes = in.readAllBytes();
+        }
+        try (PDDocument document = PDDocument.load(bytes)) {
+            PDAcroForm form = document.getDocumentCatalog().getAcroForm();
+            if (form == null) {
+                throw new IllegalStateException("No form found in template");
+            }
+            Set<String> textFields = new HashSet<>();
+            for (PDField field : form.getFieldTree()) {
+                if (field instanceof PDTextField) {
+                    textFields.add(field.getFullyQualifiedName());
+                }
+            }
+            return new CachedTemplate(bytes, textFields, lastModified);
+        }
+    }
+
+    private CachedFont getFont() throws IOException {
+        CachedFont cached = font;
+        long now = System.currentTimeMillis();
+        if (cached != null && now - cached.checkedAt < checkIntervalMillis) {
+            return cached;
+        }
+
+        Resource resource = new ClassPathResource(ARABIC_FONT_PATH);
+        long lastModified = lastModified(resource);
+        if (cached != null && cached.lastModified == lastModified) {
+            cached.checkedAt = now;
+            return cached;
+        }
+
+        byte[] bytes;
+        try (InputStream in = resource.getInputStream()) {
+            bytes = in.readAllBytes();
+        }
+        CachedFont loaded = new CachedFont(bytes, lastModified);
+        loaded.checkedAt = now;
+        font = loaded;
+        log.info("Loaded font {} ({} bytes)", ARABIC_FONT_PATH, bytes.length);
+        return loaded;
+    }
+
+    private static long lastModified(Resource resource) {
+        try {
+            return resource.lastModified();
+        } catch (IOException e) {
+            // Resources that cannot report a timestamp are never reloaded
+            return -1;
+        }
+    }
+
+    private static final class CachedTemplate {
+        private final byte[] bytes;
+        private final Set<String> textFields;
+        private final long lastModified;
+        private volatile long checkedAt;
+
+        private CachedTemplate(byte[] bytes, Set<String> textFields, long lastModified) {
+            this.bytes = bytes;
+            this.textFields = textFields;
+            this.lastModified = lastModified;
+        }
+    }
+
+    /**
+     * Parsed font programs are not thread-safe, so concurrent requests each borrow
+     * their own; a few are kept for reuse instead of re-parsing the font every time.
+     */
+    private static final class CachedFont {
+        private final byte[] bytes;
+        private final long lastModified;
+        private final Queue<TrueTypeFont> pool = new ConcurrentLinkedQueue<>();
+        private volatile long checkedAt;
+
+        private CachedFont(byte[] bytes, long lastModified) {
+            this.bytes = bytes;
+            this.lastModified = lastModified;
+        }
+
+        private TrueTypeFont borrow() throws IOException {
+            TrueTypeFont pooled = pool.poll();
+            return pooled != null ? pooled : new TTFParser().parse(new ByteArrayInputStream(bytes));
+        }
+
+        private void release(TrueTypeFont trueTypeFont) {
+            if (pool.size() < MAX_POOLED_FONTS) {
+                pool.offer(trueTypeFont);
+                return;
+            }
+            try {
+                trueTypeFont.close();
+            } catch (IOException e) {
+                log.debug("Failed to close font: {}", e.getMessage());
+            }
         }
     }
 
-    private PDDocument loadTemplate(String templateName) throws IOException {
-        ClassPathResource resource = new ClassPathResource(TEMPLATES_PATH + templateName);
-        return PDDocument.load(resource.getInputStream());
+    @FunctionalInterface
+    interface FontCallback<T> {
+        T apply(TrueTypeFont font) throws IOException;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,182 @@
+package com.novavista.binaa.center.services.impl;
+
+import com.novavista.binaa.center.dto.response.ProgressPregenerationResultDTO;
+import com.novavista.binaa.center.dto.response.SessionSummaryDTO;
+import com.novavista.binaa.center.entity.Assessment;
+import com.novavista.binaa.center.entity.Case;
+import com.novavista.binaa.center.enums.CaseStatus;
+import com.novavista.binaa.center.enums.ReportType;
+import com.novavista.binaa.center.exceptions.ValidationException;
+import com.novavista.binaa.center.repository.AssessmentRepository;
+import com.novavista.binaa.center.repository.CaseRepository;
+import com.novavista.binaa.center.repository.SessionRepository;
+import com.novavista.binaa.center.services.ProgressReportPregenerationService;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+
+import java.io.StringWriter;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+/**
+ * Pre-generates monthly progress reports so they are ready before staff ask for
+ * them. Active cases are split into chunks that run in parallel; each chunk loads
+ * its cases, sessions and assessments with one query each, renders the reports
+ * and saves them with a single batched upsert keyed by case, type and period.
+ */
+@Service
+@Slf4j
+public class ProgressReportPregenerationServiceImpl implements ProgressReportPregenerationService {
+    private static final String UPSERT_REPORT =
+            "INSERT INTO reports (case_id, report_content, created_date, report_type, template_id, report_period) " +
+                    "VALUES (?, ?, ?, ?, ?, ?) " +
+                    "ON DUPLICATE KEY UPDATE report_content = VALUES(report_content), " +
+                    "created_date = VALUES(created_date), template_id = VALUES(template_id)";
+
+    private final CaseRepository caseRepository;
+    private final SessionRepository sessionRepository;
+    private final AssessmentRepository assessmentRepository;
+    private final ReportTemplateEngine reportTemplateEngine;
+    private final JdbcTemplate jdbcTemplate;
+    private final ThreadPoolTaskExecutor executor;
+    private final int chunkSize;
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    @Autowired
+    public ProgressReportPregenerationServiceImpl(CaseRepository caseRepository,
+                                                  SessionRepository sessionRepository,
+                                                  AssessmentRepository assessmentRepository,
+                                                  ReportTemplateEngine reportTemplateEngine,
+                                                  JdbcTemplate jdbcTemplate,
+                                                  @Value("${app.reports.pregeneration.threads:4}") int threads,
+                                                  @Value("${app.reports.pregeneration.chunk-size:50}") int chunkSize) {
+        this.caseRepository = caseRepository;
+        this.sessionRepository = sessionRepository;
+        this.assessmentRepository = assessmentRepository;
+        this.reportTemplateEngine = reportTemplateEngine;
+        this.jdbcTemplate = jdbcTemplate;
+        this.chunkSize = chunkSize;
+        this.executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setThreadNamePrefix("ProgressReports-");
+        executor.initialize();
+    }
+
+    /**
+     * Runs after midnight, so the month of yesterday is the one being filled;
+     * on the first of a month this completes the previous month
+     */
+    @Scheduled(cron = "${app.reports.pregeneration.cron:0 0 2 * * *}")
+    public void pregenerateNightly() {
+        try {
+            pregenerate(YearMonth.from(LocalDate.now().minusDays(1)));
+        } catch (ValidationException e) {
+            log.warn("Skipping nightly progress reports: {}", e.getMessage());
+        }
+    }
+
+    @Override
+    public CompletableFuture<ProgressPregenerationResultDTO> pregenerate(YearMonth month) {
+        if (!running.compareAndSet(false, true)) {
+            throw new ValidationException("Progress report pre-generation is already running");
+        }
+        try {
+            LocalDate today = LocalDate.now();
+            LocalDate startDate = month.atDay(1);
+            LocalDate endDate = month.atEndOfMonth().isAfter(today) ? today : month.atEndOfMonth();
+            if (startDate.isAfter(today)) {
+                throw new ValidationException("Cannot generate reports for a future month");
+            }
+
+            List<Long> caseIds = caseRepository.findIdsByStatus(CaseStatus.ACTIVE);
+            log.info("Pre-generating {} progress reports for {}", caseIds.size(), month);
+            long start = System.nanoTime();
+
+            List<CompletableFuture<int[]>> chunks = new ArrayList<>();
+            for (int from = 0; from < caseIds.size(); from += chunkSize) {
+                List<Long> chunk = caseIds.subList(from, Math.min(from + chunkSize, caseIds.size()));
+                chunks.add(CompletableFuture
+                        .supplyAsync(() -> generateChunk(chunk, startDate, endDate, month.toString()), executor)
+                        .exceptionally(e -> {
+                            log.error("Failed to pre-generate progress reports for cases {}", chunk, e);
+                            return new int[]{0, chunk.size()};
+                        }));
+            }
+
+            return CompletableFuture.allOf(chunks.toArray(CompletableFuture[]::new))
+                    .thenApply(done -> {
+                        int generated = chunks.stream().mapToInt(chunk -> chunk.join()[0]).sum();
+                        int failed = chunks.stream().mapToInt(chunk -> chunk.join()[1]).sum();
+                        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+                        log.info("Pre-generated {} progress reports for {} in {} ms, {} failed",
+                                generated, month, elapsedMillis, failed);
+                        return new ProgressPregenerationResultDTO(month.toString(), caseIds.size(),
+                                generated, failed, elapsedMillis);
+                    })
+                    .whenComplete((result, e) -> running.set(false));
+        } catch (RuntimeException e) {
+            running.set(false);
+            throw e;
+        }
+    }
+
+    /**
+     * @return generated and failed report counts
+     */
+    private int[] generateChunk(List<Long> caseIds, LocalDate startDate, LocalDate endDate, String reportPeriod) {
+        List<Case> cases = caseRepository.findAllById(caseIds);
+        Map<Long, List<SessionSummaryDTO>> sessionsByCase = sessionRepository
+                .findSummariesByCaseIds(caseIds, startDate.atStartOfDay(), endDate.plusDays(1).atStartOfDay())
+                .stream()
+                .collect(Collectors.groupingBy(SessionSummaryDTO::getCaseId));
+        Map<Long, List<Assessment>> assessmentsByCase = assessmentRepository
+                .findByCaseIdsAndDateRange(caseIds, startDate, endDate)
+                .stream()
+                .collect(Collectors.groupingBy(assessment -> assessment.getCaseInfo().getCaseId()));
+
+        String templateId = reportTemplateEngine.defaultTemplateId(ReportType.PROGRESS);
+        LocalDate today = LocalDate.now();
+        List<Object[]> rows = new ArrayList<>(cases.size());
+        int failed = caseIds.size() - cases.size();
+        for (Case caseInfo : cases) {
+            try {
+                Map<String, Object> model = new HashMap<>();
+                model.put("generatedDate", today);
+                ProgressReports.putModel(model, caseInfo, startDate, endDate,
+                        sessionsByCase.getOrDefault(caseInfo.getCaseId(), List.of()),
+                        assessmentsByCase.getOrDefault(caseInfo.getCaseId(), List.of()));
+                StringWriter content = new StringWriter();
+                reportTemplateEngine.render(templateId, model, content);
+                rows.add(new Object[]{caseInfo.getCaseId(), content.toString(), today,
+                        ReportType.PROGRESS.name(), templateId, reportPeriod});
+            } catch (RuntimeException e) {
+                log.warn("Failed to render progress report for case {}: {}", caseInfo.getCaseId(), e.getMessage());
+                failed++;
+            }
+        }
+
+        if (!rows.isEmpty()) {
+            jdbcTemplate.batchUpdate(UPSERT_REPORT, rows);
+        }
+        return new int[]{rows.size(), failed};
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
@@ -0,0 +1,29 @@
+package com.novavista.binaa.center.services.impl;
+
+import com.novavista.binaa.center.dto.response.SessionSummaryDTO;
+import com.novavista.binaa.center.entity.Assessment;
+import com.novavista.binaa.center.entity.Case;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Data model of the progress report template, shared by on-request generation
+ * and the nightly batch
+ */
+final class ProgressReports {
+    private ProgressReports() {
+    }
+
+    static void putModel(Map<String, Object> model, Case caseInfo, LocalDate startDate, LocalDate endDate,
+                         List<SessionSummaryDTO> sessions, List<Assessment> assessments) {
+        model.put("case", caseInfo);
+        model.put("startDate", startDate);
+        model.put("endDate", endDate);
+        model.put("sessions", sessions);
+        model.put("sessionCount", sessions.size());
+        model.put("assessments", assessments);
+        model.put("hasAssessments", !assessments.isEmpty());
+    }
+}
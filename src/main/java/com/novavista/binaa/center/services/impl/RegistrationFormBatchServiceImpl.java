@@ -0,0 +1,189 @@
+package com.novavista.binaa.center.services.impl;
+
+import com.novavista.binaa.center.dto.request.RegistrationFormBatchRequestDTO;
+import com.novavista.binaa.center.entity.Case;
+import com.novavista.binaa.center.enums.FormOutputMode;
+import com.novavista.binaa.center.exceptions.ReportGenerationException;
+import com.novavista.binaa.center.exceptions.ResourceNotFoundException;
+import com.novavista.binaa.center.exceptions.ValidationException;
+import com.novavista.binaa.center.repository.CaseRepository;
+import com.novavista.binaa.center.services.RegistrationFormBatch;
+import com.novavista.binaa.center.services.RegistrationFormBatchService;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.pdfbox.io.MemoryUsageSetting;
+import org.apache.pdfbox.multipdf.PDFMergerUtility;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Renders registration forms for many cases at once. Cases are loaded in a single
+ * query, forms are filled on a fixed-size pool and spooled to temporary files, and
+ * the output is assembled from those files so memory use does not grow with the
+ * number of cases.
+ */
+@Service
+@Slf4j
+public class RegistrationFormBatchServiceImpl implements RegistrationFormBatchService {
+    private final CaseRepository caseRepository;
+    private final PDFService pdfService;
+    private final ThreadPoolTaskExecutor executor;
+    private final int maxCases;
+
+    @Autowired
+    public RegistrationFormBatchServiceImpl(CaseRepository caseRepository,
+                                            PDFService pdfService,
+                                            @Value("${app.reports.batch.threads:4}") int threads,
+                                            @Value("${app.reports.batch.max-cases:1000}") int maxCases) {
+        this.caseRepository = caseRepository;
+        this.pdfService = pdfService;
+        this.maxCases = maxCases;
+        this.executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setQueueCapacity(maxCases);
+        executor.setThreadNamePrefix("FormBatch-");
+        // When several batches overlap the requesting thread renders too, instead of failing
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.initialize();
+    }
+
+    @Override
+    public RegistrationFormBatch renderForms(RegistrationFormBatchRequestDTO request) {
+        List<Case> cases = resolveCases(request);
+        log.info("Rendering {} registration forms", cases.size());
+
+        // Field values are read here so worker threads never touch JPA entities
+        Map<Long, Map<String, String>> fieldsByCase = new LinkedHashMap<>();
+        cases.forEach(caseEntity -> fieldsByCase.put(caseEntity.getCaseId(), RegistrationForms.fields(caseEntity)));
+
+        FormOutputMode mode = request.getMode() == null ? FormOutputMode.EDITABLE : request.getMode();
+        long start = System.nanoTime();
+        Map<Long, CompletableFuture<RegistrationFormBatch.Form>> futures = new LinkedHashMap<>();
+        fieldsByCase.forEach((caseId, fields) ->
+                futures.put(caseId, CompletableFuture.supplyAsync(() -> renderForm(caseId, fields, mode), executor)));
+
+        List<RegistrationFormBatch.Form> forms = new ArrayList<>();
+        List<Long> failed = new ArrayList<>();
+        futures.forEach((caseId, future) -> {
+            try {
+                forms.add(future.join());
+            } catch (CompletionException e) {
+                failed.add(caseId);
+                log.error("Failed to render registration form for case {}", caseId, e.getCause());
+            }
+        });
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        RegistrationFormBatch batch = new RegistrationFormBatch(forms, failed, elapsedMillis);
+        if (forms.isEmpty() && !failed.isEmpty()) {
+            batch.close();
+            throw new ReportGenerationException("Failed to generate registration forms");
+        }
+        log.info("Rendered {} registration forms in {} ms ({} failed, {} forms/s)",
+                forms.size(), elapsedMillis, failed.size(), String.format("%.1f", batch.getFormsPerSecond()));
+        return batch;
+    }
+
+    @Override
+    public void writeMergedPdf(RegistrationFormBatch batch, OutputStream out) {
+        PDFMergerUtility merger = new PDFMergerUtility();
+        try {
+            for (RegistrationFormBatch.Form form : batch.getForms()) {
+                merger.addSource(form.getFile().toFile());
+            }
+            merger.setDestinationStream(out);
+            // Page content of the sources is buffered on disk, not on the heap
+            merger.mergeDocuments(MemoryUsageSetting.setupTempFileOnly());
+            out.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to merge registration forms", e);
+        }
+    }
+
+    @Override
+    public void writeZip(RegistrationFormBatch batch, OutputStream out) {
+        try {
+            ZipOutputStream zip = new ZipOutputStream(out);
+            zip.setLevel(Deflater.BEST_SPEED);
+            for (RegistrationFormBatch.Form form : batch.getForms()) {
+                zip.putNextEntry(new ZipEntry("registration-form-" + form.getCaseId() + ".pdf"));
+                Files.copy(form.getFile(), zip);
+                zip.closeEntry();
+            }
+            zip.finish();
+            out.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write registration forms", e);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    private RegistrationFormBatch.Form renderForm(Long caseId, Map<String, String> fields, FormOutputMode mode) {
+        try {
+            byte[] pdf = pdfService.fillFormTemplate(RegistrationForms.TEMPLATE, fields, mode);
+            Path file = Files.createTempFile("registration-form-" + caseId + "-", ".pdf");
+            Files.write(file, pdf);
+            return new RegistrationFormBatch.Form(caseId, file);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private List<Case> resolveCases(RegistrationFormBatchRequestDTO request) {
+        if (request.getCaseIds() != null && !request.getCaseIds().isEmpty()) {
+            Set<Long> caseIds = new LinkedHashSet<>(request.getCaseIds());
+            checkBatchSize(caseIds.size());
+
+            Map<Long, Case> found = caseRepository.findAllById(caseIds).stream()
+                    .collect(Collectors.toMap(Case::getCaseId, Function.identity()));
+            List<Long> missing = caseIds.stream().filter(id -> !found.containsKey(id)).toList();
+            if (!missing.isEmpty()) {
+                throw new ResourceNotFoundException("Cases not found: " + missing);
+            }
+            return caseIds.stream().map(found::get).toList();
+        }
+
+        if (request.getStatus() != null) {
+            List<Case> cases = new ArrayList<>(caseRepository.findByStatus(request.getStatus()));
+            checkBatchSize(cases.size());
+            cases.sort(Comparator.comparing(Case::getCaseId));
+            return cases;
+        }
+
+        throw new ValidationException("Either case IDs or a case status is required");
+    }
+
+    private void checkBatchSize(int size) {
+        if (size > maxCases) {
+            throw new ValidationException("At most " + maxCases + " registration forms can be generated at once");
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.novavista.binaa.center.services.impl;
+
+import com.novavista.binaa.center.entity.Case;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Field values of the registration form template for a case
+ */
+final class RegistrationForms {
+    static final String TEMPLATE = "registration-form.pdf";
+
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("dd/MM/yyyy");
+
+    private RegistrationForms() {
+    }
+
+    static Map<String, String> fields(Case caseEntity) {
+        Map<String, String> formFields = new HashMap<>();
+        formFields.put("caseID", String.valueOf(caseEntity.getCaseId()));
+        formFields.put("childName", caseEntity.getName());
+        formFields.put("birthDate", formatDate(caseEntity.getAdmissionDate()));
+        formFields.put("guardianName", caseEntity.getGuardianName());
+        formFields.put("phoneNumber", caseEntity.getContactNumber());
+        formFields.put("gradeLevel", caseEntity.getGradeLevel());
+        formFields.put("schoolName", caseEntity.getSchoolName());
+        formFields.put("specialNeeds_1", caseEntity.getSpecialNeeds());
+        formFields.put("medicalHistory_1", caseEntity.getMedicalHistory());
+        formFields.put("admissionDate", formatDate(caseEntity.getAdmissionDate()));
+        // Add any additional fields that match your PDF form fields
+        return formFields;
+    }
+
+    private static String formatDate(LocalDate date) {
+        if (date == null) return "";
+        return date.format(DATE_FORMAT);
+    }
+}
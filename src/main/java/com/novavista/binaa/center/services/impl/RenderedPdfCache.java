@@ -0,0 +1,354 @@
+package com.novavista.binaa.center.services.impl;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.stream.Stream;
+
+/**
+ * Keeps rendered PDFs so an unchanged case or report is not rendered again on every
+ * download. Entries are keyed by entity and a hash of everything the PDF is rendered
+ * from, so a changed source simply misses the cache; {@link #evict} only reclaims
+ * the space of the versions an update made obsolete.
+ * <p>
+ * Files live under {@code <location>/rendered} and are evicted least recently used
+ * once the disk budget is exceeded; the most recently used ones are also held in a
+ * small memory tier.
+ */
+@Component
+@Slf4j
+public class RenderedPdfCache {
+    public static final String REGISTRATION_FORM = "registration-form";
+    public static final String REPORT = "report";
+
+    private static final String SUFFIX = ".pdf";
+
+    private final Path root;
+    private final long maxDiskBytes;
+    private final long maxMemoryBytes;
+
+    // Both maps are in access order, so iteration starts at the least recently used entry
+    private final LinkedHashMap<String, Long> diskEntries = new LinkedHashMap<>(64, 0.75f, true);
+    private final LinkedHashMap<String, byte[]> memoryEntries = new LinkedHashMap<>(16, 0.75f, true);
+    private long diskBytes;
+    private long memoryBytes;
+
+    // Concurrent requests for the same missing entry wait for a single render
+    private final Map<String, CompletableFuture<byte[]>> rendering = new ConcurrentHashMap<>();
+
+    public RenderedPdfCache(@Value("${app.file-storage.location:uploads}") String location,
+                            @Value("${app.pdf.cache.max-disk-size:256MB}") DataSize maxDiskSize,
+                            @Value("${app.pdf.cache.max-memory-size:16MB}") DataSize maxMemorySize) {
+        this.root = Paths.get(location).toAbsolutePath().normalize().resolve("rendered");
+        this.maxDiskBytes = maxDiskSize.toBytes();
+        this.maxMemoryBytes = maxMemorySize.toBytes();
+    }
+
+    /**
+     * Picks up the files of a previous run, oldest first, and drops unfinished writes
+     */
+    @PostConstruct
+    void loadIndex() throws IOException {
+        Files.createDirectories(root);
+        List<Path> files = new ArrayList<>();
+        try (Stream<Path> listing = Files.list(root)) {
+            listing.forEach(files::add);
+        }
+        List<Path> entries = new ArrayList<>();
+        for (Path file : files) {
+            if (file.getFileName().toString().endsWith(SUFFIX)) {
+                entries.add(file);
+            } else {
+                Files.deleteIfExists(file);
+            }
+        }
+        entries.sort(Comparator.comparing(RenderedPdfCache::lastAccess));
+
+        synchronized (this) {
+            for (Path file : entries) {
+                long size = Files.size(file);
+                String name = file.getFileName().toString();
+                diskEntries.put(name.substring(0, name.length() - SUFFIX.length()), size);
+                diskBytes += size;
+            }
+            trimDisk();
+        }
+        log.info("Rendered PDF cache at {} holds {} files ({} bytes)", root, diskEntries.size(), diskBytes);
+    }
+
+    /**
+     * Returns the cached PDF, rendering and storing it on a miss
+     * @param kind what is rendered, e.g. {@link #REGISTRATION_FORM}
+     * @param id the ID of the rendered entity
+     * @param version hash of the rendering input, see {@link #version}
+     * @param renderer produces the PDF on a miss
+     * @return the PDF bytes
+     */
+    public byte[] get(String kind, Long id, String version, Renderer renderer) throws IOException {
+        String key = key(kind, id, version);
+        byte[] cached = read(key);
+        if (cached != null) {
+            return cached;
+        }
+
+        CompletableFuture<byte[]> pending = new CompletableFuture<>();
+        CompletableFuture<byte[]> existing = rendering.putIfAbsent(key, pending);
+        if (existing != null) {
+            return await(existing);
+        }
+        try {
+            byte[] content = renderer.render();
+            write(key, content);
+            pending.complete(content);
+            return content;
+        } catch (IOException | RuntimeException e) {
+            pending.completeExceptionally(e);
+            throw e;
+        } finally {
+            rendering.remove(key);
+        }
+    }
+
+    /**
+     * Opens the cached PDF as a file stream, rendering it straight to disk on a miss.
+     * Meant for documents too large to hold in memory; they bypass the memory tier.
+     * @param kind what is rendered, e.g. {@link #REPORT}
+     * @param id the ID of the rendered entity
+     * @param version hash of the rendering input, see {@link #version}
+     * @param renderer writes the PDF on a miss
+     * @return the PDF content; the caller closes it
+     */
+    public InputStream open(String kind, Long id, String version, StreamRenderer renderer) throws IOException {
+        String key = key(kind, id, version);
+        boolean cached;
+        synchronized (this) {
+            cached = diskEntries.get(key) != null;
+        }
+        if (cached) {
+            try {
+                // An open file stays readable even if it is evicted meanwhile
+                return Files.newInputStream(file(key));
+            } catch (NoSuchFileException e) {
+                log.debug("Rendered PDF {} evicted before it was opened", key);
+            }
+        }
+
+        Path temp = Files.createTempFile(root, "rendering-", ".part");
+        long size;
+        try {
+            try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(temp))) {
+                renderer.render(out);
+            }
+            size = Files.size(temp);
+            Files.move(temp, file(key), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+        InputStream content = Files.newInputStream(file(key));
+
+        List<String> evicted;
+        synchronized (this) {
+            Long previous = diskEntries.put(key, size);
+            diskBytes += size - (previous == null ? 0 : previous);
+            evicted = trimDisk();
+        }
+        evicted.forEach(this::deleteFile);
+        return content;
+    }
+
+    /**
+     * Drops every cached version of an entity
+     */
+    public void evict(String kind, Long id) {
+        String prefix = kind + "-" + id + "-";
+        List<String> removed = new ArrayList<>();
+        synchronized (this) {
+            for (Iterator<Map.Entry<String, Long>> it = diskEntries.entrySet().iterator(); it.hasNext(); ) {
+                Map.Entry<String, Long> entry = it.next();
+                if (entry.getKey().startsWith(prefix)) {
+                    diskBytes -= entry.getValue();
+                    removed.add(entry.getKey());
+                    it.remove();
+                }
+            }
+            for (Iterator<Map.Entry<String, byte[]>> it = memoryEntries.entrySet().iterator(); it.hasNext(); ) {
+                Map.Entry<String, byte[]> entry = it.next();
+                if (entry.getKey().startsWith(prefix)) {
+                    memoryBytes -= entry.getValue().length;
+                    it.remove();
+                }
+            }
+        }
+        removed.forEach(this::deleteFile);
+        if (!removed.isEmpty()) {
+            log.debug("Evicted {} rendered PDFs of {} {}", removed.size(), kind, id);
+        }
+    }
+
+    /**
+     * Hashes the inputs a PDF is rendered from into a cache version
+     */
+    public static String version(Object... parts) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            for (Object part : parts) {
+                digest.update(String.valueOf(part).getBytes(StandardCharsets.UTF_8));
+                digest.update((byte) 0);
+            }
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private byte[] read(String key) throws IOException {
+        synchronized (this) {
+            byte[] cached = memoryEntries.get(key);
+            if (cached != null) {
+                return cached;
+            }
+            if (diskEntries.get(key) == null) {
+                return null;
+            }
+        }
+        byte[] content;
+        try {
+            content = Files.readAllBytes(file(key));
+        } catch (NoSuchFileException e) {
+            // Evicted between the lookup and the read
+            return null;
+        }
+        synchronized (this) {
+            putInMemory(key, content);
+        }
+        return content;
+    }
+
+    private void write(String key, byte[] content) throws IOException {
+        Path temp = Files.createTempFile(root, "rendering-", ".part");
+        try {
+            Files.write(temp, content);
+            Files.move(temp, file(key), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+
+        List<String> evicted;
+        synchronized (this) {
+            Long previous = diskEntries.put(key, (long) content.length);
+            diskBytes += content.length - (previous == null ? 0 : previous);
+            evicted = trimDisk();
+            putInMemory(key, content);
+        }
+        evicted.forEach(this::deleteFile);
+    }
+
+    private List<String> trimDisk() {
+        List<String> evicted = new ArrayList<>();
+        Iterator<Map.Entry<String, Long>> it = diskEntries.entrySet().iterator();
+        // The newest entry always stays, even if it alone exceeds the budget
+        while (diskBytes > maxDiskBytes && diskEntries.size() > 1 && it.hasNext()) {
+            Map.Entry<String, Long> eldest = it.next();
+            diskBytes -= eldest.getValue();
+            evicted.add(eldest.getKey());
+            it.remove();
+            byte[] inMemory = memoryEntries.remove(eldest.getKey());
+            if (inMemory != null) {
+                memoryBytes -= inMemory.length;
+            }
+        }
+        return evicted;
+    }
+
+    private void putInMemory(String key, byte[] content) {
+        if (content.length > maxMemoryBytes / 4) {
+            // Large files would push out many small ones; they are served from disk
+            return;
+        }
+        byte[] previous = memoryEntries.put(key, content);
+        memoryBytes += content.length - (previous == null ? 0 : previous.length);
+        Iterator<Map.Entry<String, byte[]>> it = memoryEntries.entrySet().iterator();
+        while (memoryBytes > maxMemoryBytes && it.hasNext()) {
+            memoryBytes -= it.next().getValue().length;
+            it.remove();
+        }
+    }
+
+    private void deleteFile(String key) {
+        try {
+            Files.deleteIfExists(file(key));
+        } catch (IOException e) {
+            log.warn("Failed to delete rendered PDF {}: {}", key, e.getMessage());
+        }
+    }
+
+    private Path file(String key) {
+        return root.resolve(key + SUFFIX);
+    }
+
+    private static String key(String kind, Long id, String version) {
+        return kind + "-" + id + "-" + version;
+    }
+
+    private static long lastAccess(Path file) {
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+            return Math.max(attributes.lastAccessTime().toMillis(), attributes.lastModifiedTime().toMillis());
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    private static byte[] await(CompletableFuture<byte[]> pending) throws IOException {
+        try {
+            return pending.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for PDF rendering", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException io) {
+                throw io;
+            }
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IOException("PDF rendering failed", e.getCause());
+        }
+    }
+
+    @FunctionalInterface
+    public interface Renderer {
+        byte[] render() throws IOException;
+    }
+
+    @FunctionalInterface
+    public interface StreamRenderer {
+        void render(OutputStream out) throws IOException;
+    }
+}
@@ -0,0 +1,116 @@
+package com.novavista.binaa.center.services.impl;
+
+import com.novavista.binaa.center.dto.request.ReportGenerationRequestDTO;
+import com.novavista.binaa.center.dto.response.ReportResultDTO;
+import com.novavista.binaa.center.event.ReportJobQueuedEvent;
+import com.novavista.binaa.center.services.ReportJobService;
+import com.novavista.binaa.center.services.ReportService;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs queued report jobs on a pool of {@code app.reports.jobs.concurrency} workers.
+ * Jobs are claimed from the database, so the queue survives restarts; jobs that
+ * were running when the application stopped are put back in the queue on startup,
+ * until they have been started {@code app.reports.jobs.max-attempts} times.
+ * This assumes a single application instance.
+ */
+@Component
+@Slf4j
+public class ReportJobDispatcher {
+    private final ReportJobService reportJobService;
+    private final ReportService reportService;
+    private final ThreadPoolTaskExecutor executor;
+    private final int concurrency;
+    private final AtomicInteger running = new AtomicInteger();
+    private volatile boolean started;
+
+    @Autowired
+    public ReportJobDispatcher(ReportJobService reportJobService,
+                               ReportService reportService,
+                               @Value("${app.reports.jobs.concurrency:2}") int concurrency) {
+        this.reportJobService = reportJobService;
+        this.reportService = reportService;
+        this.concurrency = concurrency;
+        this.executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(concurrency);
+        executor.setMaxPoolSize(concurrency);
+        executor.setQueueCapacity(concurrency);
+        executor.setThreadNamePrefix("ReportJob-");
+        executor.initialize();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        reportJobService.requeueInterruptedJobs();
+        started = true;
+        dispatch();
+    }
+
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void handleJobQueued(ReportJobQueuedEvent event) {
+        dispatch();
+    }
+
+    /**
+     * Safety net for jobs queued while all workers were busy
+     */
+    @Scheduled(fixedDelayString = "${app.reports.jobs.poll-interval:PT5S}")
+    public void poll() {
+        dispatch();
+    }
+
+    /**
+     * Claims as many queued jobs as there are idle workers
+     */
+    public synchronized void dispatch() {
+        if (!started) {
+            return;
+        }
+        int idle = concurrency - running.get();
+        if (idle <= 0) {
+            return;
+        }
+        List<Long> jobIds = reportJobService.claimQueuedJobs(idle);
+        for (Long jobId : jobIds) {
+            running.incrementAndGet();
+            executor.execute(() -> runJob(jobId));
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        started = false;
+        executor.shutdown();
+    }
+
+    private void runJob(Long jobId) {
+        long start = System.currentTimeMillis();
+        try {
+            ReportGenerationRequestDTO request = reportJobService.getJobRequest(jobId);
+            ReportResultDTO result = reportService.generateReportOrThrow(request);
+            reportJobService.completeJob(jobId, result.getReportId());
+            log.debug("Report job {} took {} ms", jobId, System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            log.error("Report job {} failed", jobId, e);
+            reportJobService.failJob(jobId, e.getMessage());
+        } finally {
+            running.decrementAndGet();
+            if (started) {
+                dispatch();
+            }
+        }
+    }
+}
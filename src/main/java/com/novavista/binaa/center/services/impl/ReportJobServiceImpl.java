@@ -0,0 +1,269 @@
+package com.novavista.binaa.center.services.impl;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.novavista.binaa.center.dto.request.ReportGenerationRequestDTO;
+import com.novavista.binaa.center.dto.response.ReportJobDTO;
+import com.novavista.binaa.center.dto.response.ReportResultDTO;
+import com.novavista.binaa.center.entity.ReportJob;
+import com.novavista.binaa.center.enums.ReportJobStatus;
+import com.novavista.binaa.center.event.ReportJobQueuedEvent;
+import com.novavista.binaa.center.exceptions.ReportNotReadyException;
+import com.novavista.binaa.center.exceptions.ResourceNotFoundException;
+import com.novavista.binaa.center.exceptions.ValidationException;
+import com.novavista.binaa.center.repository.CaseRepository;
+import com.novavista.binaa.center.repository.ReportJobRepository;
+import com.novavista.binaa.center.repository.ReportRepository;
+import com.novavista.binaa.center.repository.SessionRepository;
+import com.novavista.binaa.center.security.SecurityUtils;
+import com.novavista.binaa.center.services.ReportJobService;
+import com.novavista.binaa.center.services.ReportService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+
+@Service
+@Slf4j
+@Transactional
+public class ReportJobServiceImpl implements ReportJobService {
+    private static final int MAX_ERROR_LENGTH = 1000;
+
+    private final ReportJobRepository reportJobRepository;
+    private final ReportRepository reportRepository;
+    private final CaseRepository caseRepository;
+    private final SessionRepository sessionRepository;
+    private final ReportService reportService;
+    private final SecurityUtils securityUtils;
+    private final ApplicationEventPublisher eventPublisher;
+    private final ObjectMapper objectMapper;
+    private final int maxAttempts;
+
+    @Autowired
+    public ReportJobServiceImpl(ReportJobRepository reportJobRepository,
+                                ReportRepository reportRepository,
+                                CaseRepository caseRepository,
+                                SessionRepository sessionRepository,
+                                ReportService reportService,
+                                SecurityUtils securityUtils,
+                                ApplicationEventPublisher eventPublisher,
+                                ObjectMapper objectMapper,
+                                @Value("${app.reports.jobs.max-attempts:3}") int maxAttempts) {
+        this.reportJobRepository = reportJobRepository;
+        this.reportRepository = reportRepository;
+        this.caseRepository = caseRepository;
+        this.sessionRepository = sessionRepository;
+        this.reportService = reportService;
+        this.securityUtils = securityUtils;
+        this.eventPublisher = eventPublisher;
+        // Sorted keys give identical parameter maps identical JSON, and so the same request hash
+        this.objectMapper = objectMapper.copy().configure(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS, true);
+        this.maxAttempts = maxAttempts;
+    }
+
+    @Override
+    // Each repository call commits on its own, so a lost insert race can be resolved by a fresh read
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public ReportJobDTO submitJob(ReportGenerationRequestDTO requestDTO) {
+        String parameters = toJson(requestDTO.getParameters());
+        String requestHash = hashRequest(requestDTO, parameters);
+
+        ReportJob existing = reportJobRepository.findByActiveRequestHash(requestHash).orElse(null);
+        if (existing != null) {
+            log.info("Report request matches job {} in state {}", existing.getJobId(), existing.getStatus());
+            return toDto(existing, true);
+        }
+
+        ReportJob job = new ReportJob();
+        job.setRequestHash(requestHash);
+        job.setActiveRequestHash(requestHash);
+        job.setCaseInfo(caseRepository.findById(requestDTO.getCaseId())
+                .orElseThrow(() -> new ResourceNotFoundException("Case not found")));
+        if (requestDTO.getSessionId() != null) {
+            job.setSession(sessionRepository.findById(requestDTO.getSessionId())
+                    .orElseThrow(() -> new ResourceNotFoundException("Session not found")));
+        }
+        job.setReportType(requestDTO.getReportType());
+        job.setStartDate(requestDTO.getStartDate());
+        job.setEndDate(requestDTO.getEndDate());
+        job.setTemplateId(requestDTO.getTemplateId());
+        job.setParameters(parameters);
+        job.setStatus(ReportJobStatus.QUEUED);
+        job.setCreatedBy(securityUtils.getCurrentUser());
+        job.setCreatedAt(LocalDateTime.now());
+
+        try {
+            ReportJob savedJob = reportJobRepository.save(job);
+            log.info("Queued report job {} for case ID: {}, type: {}",
+                    savedJob.getJobId(), requestDTO.getCaseId(), requestDTO.getReportType());
+            eventPublisher.publishEvent(new ReportJobQueuedEvent(savedJob.getJobId()));
+            return toDto(savedJob, false);
+        } catch (DataIntegrityViolationException e) {
+            // An identical request was queued concurrently
+            return reportJobRepository.findByActiveRequestHash(requestHash)
+                    .map(winner -> toDto(winner, true))
+                    .orElseThrow(() -> e);
+        }
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public ReportJobDTO getJob(Long jobId) {
+        return toDto(findJob(jobId), false);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public ReportResultDTO getJobReport(Long jobId) {
+        ReportJob job = findJob(jobId);
+        switch (job.getStatus()) {
+            case GENERATED -> {
+                if (job.getReport() == null) {
+                    throw new ResourceNotFoundException("Report has been deleted");
+                }
+                return reportService.getReportById(job.getReport().getReportId());
+            }
+            case FAILED -> throw new ValidationException("Report generation failed: " + job.getErrorMessage());
+            default -> throw new ReportNotReadyException("Report is " + job.getStatus().name().toLowerCase());
+        }
+    }
+
+    @Override
+    public List<Long> claimQueuedJobs(int limit) {
+        List<Long> claimed = new ArrayList<>();
+        for (Long jobId : reportJobRepository.findIdsByStatus(ReportJobStatus.QUEUED, PageRequest.of(0, limit))) {
+            if (reportJobRepository.claim(jobId, ReportJobStatus.QUEUED, ReportJobStatus.RUNNING,
+                    LocalDateTime.now(), maxAttempts) == 1) {
+                claimed.add(jobId);
+            }
+        }
+        return claimed;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public ReportGenerationRequestDTO getJobRequest(Long jobId) {
+        ReportJob job = findJob(jobId);
+        ReportGenerationRequestDTO request = new ReportGenerationRequestDTO();
+        request.setCaseId(job.getCaseInfo().getCaseId());
+        request.setSessionId(job.getSession() == null ? null : job.getSession().getSessionId());
+        request.setReportType(job.getReportType());
+        request.setStartDate(job.getStartDate());
+        request.setEndDate(job.getEndDate());
+        request.setTemplateId(job.getTemplateId());
+        request.setParameters(fromJson(job.getParameters()));
+        return request;
+    }
+
+    @Override
+    public void completeJob(Long jobId, Long reportId) {
+        ReportJob job = findJob(jobId);
+        job.setStatus(ReportJobStatus.GENERATED);
+        job.setReport(reportRepository.getReferenceById(reportId));
+        finish(job);
+        log.info("Report job {} generated report {}", jobId, reportId);
+    }
+
+    @Override
+    public void failJob(Long jobId, String errorMessage) {
+        ReportJob job = findJob(jobId);
+        job.setStatus(ReportJobStatus.FAILED);
+        job.setErrorMessage(errorMessage == null || errorMessage.length() <= MAX_ERROR_LENGTH
+                ? errorMessage
+                : errorMessage.substring(0, MAX_ERROR_LENGTH));
+        finish(job);
+        log.warn("Report job {} failed: {}", jobId, errorMessage);
+    }
+
+    @Override
+    public int requeueInterruptedJobs() {
+        // A job that keeps taking the application down with it is not started again
+        int failed = reportJobRepository.failExhausted(List.of(ReportJobStatus.RUNNING, ReportJobStatus.QUEUED),
+                ReportJobStatus.FAILED, maxAttempts,
+                "Interrupted " + maxAttempts + " times, giving up", LocalDateTime.now());
+        if (failed > 0) {
+            log.warn("Failed {} report jobs that used up their {} attempts", failed, maxAttempts);
+        }
+        int requeued = reportJobRepository.updateStatus(ReportJobStatus.RUNNING, ReportJobStatus.QUEUED);
+        if (requeued > 0) {
+            log.info("Requeued {} report jobs interrupted by shutdown", requeued);
+        }
+        return requeued;
+    }
+
+    private void finish(ReportJob job) {
+        job.setActiveRequestHash(null);
+        job.setFinishedAt(LocalDateTime.now());
+        reportJobRepository.save(job);
+    }
+
+    private ReportJob findJob(Long jobId) {
+        return reportJobRepository.findById(jobId)
+                .orElseThrow(() -> new ResourceNotFoundException("Report job not found"));
+    }
+
+    private ReportJobDTO toDto(ReportJob job, boolean deduplicated) {
+        return new ReportJobDTO(
+                job.getJobId(),
+                job.getCaseInfo().getCaseId(),
+                job.getReportType(),
+                job.getStatus(),
+                job.getReport() == null ? null : job.getReport().getReportId(),
+                job.getErrorMessage(),
+                job.getAttempts(),
+                job.getCreatedAt(),
+                job.getStartedAt(),
+                job.getFinishedAt(),
+                deduplicated);
+    }
+
+    private String hashRequest(ReportGenerationRequestDTO requestDTO, String parameters) {
+        String canonical = String.join("|",
+                String.valueOf(requestDTO.getCaseId()),
+                String.valueOf(requestDTO.getSessionId()),
+                String.valueOf(requestDTO.getReportType()),
+                String.valueOf(requestDTO.getStartDate()),
+                String.valueOf(requestDTO.getEndDate()),
+                String.valueOf(requestDTO.getTemplateId()),
+                String.valueOf(parameters));
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(canonical.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private String toJson(Map<String, Object> parameters) {
+        try {
+            return parameters == null || parameters.isEmpty() ? null : objectMapper.writeValueAsString(parameters);
+        } catch (JsonProcessingException e) {
+            throw new ValidationException("Invalid report parameters");
+        }
+    }
+
+    private Map<String, Object> fromJson(String parameters) {
+        try {
+            return parameters == null ? null : objectMapper.readValue(parameters, new TypeReference<>() {});
+        } catch (JsonProcessingException e) {
+            log.error("Error reading report job parameters", e);
+            return null;
+        }
+    }
+}
@@ -0,0 +1,229 @@
+package com.novavista.binaa.center.services.impl;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.fontbox.ttf.TrueTypeFont;
+import org.apache.pdfbox.io.MemoryUsageSetting;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.PDPageContentStream;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
+import org.apache.pdfbox.pdmodel.font.PDType0Font;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Lays out report text on A4 pages. Paragraphs are aligned by their own base
+ * direction, so Arabic text is right-aligned and wraps from the right, and a new
+ * page is started whenever the current one is full. Page content is buffered in a
+ * scratch file rather than the heap, so page count does not drive memory use.
+ */
+@Component
+@Slf4j
+public class ReportPdfRenderer {
+    // Part of the cache version of rendered reports; change it whenever the layout changes
+    static final String LAYOUT_VERSION = "1";
+
+    private static final PDRectangle PAGE_SIZE = PDRectangle.A4;
+    private static final float MARGIN = 50;
+    private static final float FONT_SIZE = 12;
+    private static final float LEADING = 18;
+    private static final float FOOTER_FONT_SIZE = 9;
+    private static final float MAX_LINE_WIDTH = PAGE_SIZE.getWidth() - 2 * MARGIN;
+
+    private final PDFService pdfService;
+
+    @Autowired
+    public ReportPdfRenderer(PDFService pdfService) {
+        this.pdfService = pdfService;
+    }
+
+    /**
+     * Renders report text as a PDF
+     * @param title the document title
+     * @param content the report text, one paragraph per line
+     * @param out receives the PDF
+     */
+    public void render(String title, String content, OutputStream out) throws IOException {
+        pdfService.withArabicFont(trueTypeFont -> {
+            write(trueTypeFont, title, content, out);
+            return null;
+        });
+    }
+
+    private void write(TrueTypeFont trueTypeFont, String title, String content, OutputStream out) throws IOException {
+        try (PDDocument document = new PDDocument(MemoryUsageSetting.setupTempFileOnly())) {
+            document.getDocumentInformation().setTitle(title);
+            PageWriter writer = new PageWriter(document, PDType0Font.load(document, trueTypeFont, true));
+            try (BufferedReader lines = new BufferedReader(new StringReader(content == null ? "" : content))) {
+                // An empty report still gets a page; viewers reject a PDF without one
+                writer.ensureRoom();
+                String line;
+                while ((line = lines.readLine()) != null) {
+                    writer.paragraph(line);
+                }
+            } finally {
+                writer.finishPage();
+            }
+            document.save(out);
+            log.debug("Rendered report PDF '{}' with {} pages", title, document.getNumberOfPages());
+        }
+    }
+
+    private static final class PageWriter {
+        private final PDDocument document;
+        private final PDType0Font font;
+        private PDPageContentStream stream;
+        private float y;
+        private int pageNumber;
+
+        private PageWriter(PDDocument document, PDType0Font font) {
+            this.document = document;
+            this.font = font;
+        }
+
+        private void paragraph(String text) throws IOException {
+            String cleaned = clean(text);
+            if (cleaned.isBlank()) {
+                ensureRoom();
+                y -= LEADING;
+                return;
+            }
+            boolean rightToLeft = BidiText.isRightToLeft(cleaned);
+            for (String line : wrap(cleaned)) {
+                drawLine(line, rightToLeft);
+            }
+        }
+
+        /**
+         * Breaks a paragraph into lines that fit the page, in logical order.
+         * Widths are measured on the shaped text, since joined Arabic letters
+         * are narrower than their isolated forms.
+         */
+        private List<String> wrap(String text) throws IOException {
+            List<String> lines = new ArrayList<>();
+            StringBuilder line = new StringBuilder();
+            for (String word : text.split(" ")) {
+                String candidate = line.isEmpty() ? word : line + " " + word;
+                if (width(candidate) <= MAX_LINE_WIDTH) {
+                    line.setLength(0);
+                    line.append(candidate);
+                    continue;
+                }
+                if (!line.isEmpty()) {
+                    lines.add(line.toString());
+                    line.setLength(0);
+                }
+                if (width(word) <= MAX_LINE_WIDTH) {
+                    line.append(word);
+                    continue;
+                }
+                // A single word wider than the page is split wherever it overflows
+                for (int i = 0; i < word.length(); ) {
+                    int end = i + 1;
+                    while (end < word.length() && width(word.substring(i, end + 1)) <= MAX_LINE_WIDTH) {
+                        end++;
+                    }
+                    if (end == word.length()) {
+                        line.append(word, i, end);
+                    } else {
+                        lines.add(word.substring(i, end));
+                    }
+                    i = end;
+                }
+            }
+            if (!line.isEmpty()) {
+                lines.add(line.toString());
+            }
+            return lines;
+        }
+
+        private void drawLine(String line, boolean rightToLeft) throws IOException {
+            ensureRoom();
+            String visual = encodable(BidiText.toVisualOrder(line));
+            float x = rightToLeft
+                    ? PAGE_SIZE.getWidth() - MARGIN - textWidth(visual, FONT_SIZE)
+                    : MARGIN;
+            stream.beginText();
+            stream.setFont(font, FONT_SIZE);
+            stream.newLineAtOffset(x, y);
+            stream.showText(visual);
+            stream.endText();
+            y -= LEADING;
+        }
+
+        private void ensureRoom() throws IOException {
+            if (stream == null || y < MARGIN + LEADING) {
+                finishPage();
+                PDPage page = new PDPage(PAGE_SIZE);
+                document.addPage(page);
+                stream = new PDPageContentStream(document, page);
+                pageNumber++;
+                y = PAGE_SIZE.getHeight() - MARGIN;
+            }
+        }
+
+        private void finishPage() throws IOException {
+            if (stream == null) {
+                return;
+            }
+            String number = String.valueOf(pageNumber);
+            stream.beginText();
+            stream.setFont(font, FOOTER_FONT_SIZE);
+            stream.newLineAtOffset((PAGE_SIZE.getWidth() - textWidth(number, FOOTER_FONT_SIZE)) / 2, MARGIN / 2);
+            stream.showText(number);
+            stream.endText();
+            stream.close();
+            stream = null;
+        }
+
+        private float width(String logical) throws IOException {
+            return textWidth(encodable(BidiText.toVisualOrder(logical)), FONT_SIZE);
+        }
+
+        private float textWidth(String text, float fontSize) throws IOException {
+            return font.getStringWidth(text) / 1000 * fontSize;
+        }
+
+        /**
+         * Replaces characters the font has no glyph for, which PDFBox would reject
+         */
+        private String encodable(String text) throws IOException {
+            try {
+                font.encode(text);
+                return text;
+            } catch (IllegalArgumentException e) {
+                StringBuilder result = new StringBuilder(text.length());
+                text.codePoints().forEach(codePoint -> {
+                    String character = new String(Character.toChars(codePoint));
+                    try {
+                        font.encode(character);
+                        result.append(character);
+                    } catch (IllegalArgumentException | IOException missing) {
+                        result.append('?');
+                    }
+                });
+                return result.toString();
+            }
+        }
+
+        private static String clean(String text) {
+            StringBuilder result = new StringBuilder(text.length());
+            for (int i = 0; i < text.length(); i++) {
+                char c = text.charAt(i);
+                if (c == '\t') {
+                    result.append("    ");
+                } else if (!Character.isISOControl(c)) {
+                    result.append(c);
+                }
+            }
+            return result.toString();
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package com.novavista.binaa.center.services.impl;
+
+import com.novavista.binaa.center.enums.ReportType;
+import com.novavista.binaa.center.exceptions.ReportGenerationException;
+import com.novavista.binaa.center.exceptions.ValidationException;
+import com.samskivert.mustache.Mustache;
+import com.samskivert.mustache.MustacheException;
+import com.samskivert.mustache.Template;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+/**
+ * Renders report content from Mustache templates under {@code report-templates/}.
+ * A template is named by the report's {@code template_id}, or by its report type
+ * when none is given. Each template is compiled once and the compiled form is
+ * reused; output is written straight to the caller's writer.
+ */
+@Component
+@Slf4j
+public class ReportTemplateEngine {
+    private static final Pattern TEMPLATE_ID = Pattern.compile("^[A-Za-z0-9_-]{1,50}$");
+    private static final String SUFFIX = ".mustache";
+    private static final DateTimeFormatter DATE_TIME_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
+
+    private final ResourceLoader resourceLoader;
+    private final String templatesLocation;
+    private final Mustache.Compiler compiler;
+    private final Map<String, Template> templates = new ConcurrentHashMap<>();
+
+    public ReportTemplateEngine(ResourceLoader resourceLoader,
+                                @Value("${app.reports.templates-location:classpath:report-templates/}") String templatesLocation) {
+        this.resourceLoader = resourceLoader;
+        this.templatesLocation = templatesLocation.endsWith("/") ? templatesLocation : templatesLocation + "/";
+        // Reports are plain text, so nothing is HTML-escaped; missing values render empty
+        this.compiler = Mustache.compiler()
+                .escapeHTML(false)
+                .defaultValue("")
+                .emptyStringIsFalse(true)
+                .withFormatter(value -> value instanceof LocalDateTime dateTime
+                        ? dateTime.format(DATE_TIME_FORMAT)
+                        : String.valueOf(value));
+    }
+
+    /**
+     * The template used for a report type when the request names none
+     */
+    public String defaultTemplateId(ReportType reportType) {
+        return reportType.name().toLowerCase();
+    }
+
+    /**
+     * Renders a template against a data model
+     * @param templateId the template name, without extension
+     * @param model the report data
+     * @param out receives the rendered text
+     */
+    public void render(String templateId, Object model, Writer out) {
+        Template template = getTemplate(templateId);
+        try {
+            template.execute(model, out);
+        } catch (MustacheException e) {
+            throw new ReportGenerationException("Failed to render report template " + templateId + ": " + e.getMessage());
+        }
+    }
+
+    private Template getTemplate(String templateId) {
+        if (templateId == null || !TEMPLATE_ID.matcher(templateId).matches()) {
+            throw new ValidationException("Invalid report template: " + templateId);
+        }
+        try {
+            return templates.computeIfAbsent(templateId, this::compile);
+        } catch (UncheckedIOException e) {
+            throw new ReportGenerationException("Failed to load report template " + templateId + ": "
+                    + e.getCause().getMessage());
+        }
+    }
+
+    private Template compile(String templateId) {
+        Resource resource = resourceLoader.getResource(templatesLocation + templateId + SUFFIX);
+        if (!resource.exists()) {
+            throw new ValidationException("Unknown report template: " + templateId);
+        }
+        try (Reader reader = new InputStreamReader(resource.getInputStream(), StandardCharsets.UTF_8)) {
+            Template template = compiler.compile(reader);
+            log.info("Compiled report template {}", templateId);
+            return template;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (MustacheException e) {
+            throw new ReportGenerationException("Invalid report template " + templateId + ": " + e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.novavista.binaa.center.services.impl;
+
+import com.novavista.binaa.center.dto.response.SessionRollupRebuildResultDTO;
+import com.novavista.binaa.center.exceptions.ValidationException;
+import com.novavista.binaa.center.repository.SessionRollupRepository;
+import com.novavista.binaa.center.services.SessionRollupService;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Rebuilds the daily session rollup. The range is split into chunks of days that
+ * run in parallel, each replacing its days in its own transaction, so a long
+ * range neither holds one large transaction nor stops at the first failed chunk.
+ */
+@Service
+@Slf4j
+public class SessionRollupServiceImpl implements SessionRollupService {
+    private final SessionRollupRepository sessionRollupRepository;
+    private final ThreadPoolTaskExecutor executor;
+    private final int chunkDays;
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    @Autowired
+    public SessionRollupServiceImpl(SessionRollupRepository sessionRollupRepository,
+                                    @Value("${app.sessions.rollup.rebuild-threads:4}") int threads,
+                                    @Value("${app.sessions.rollup.rebuild-chunk-days:31}") int chunkDays) {
+        this.sessionRollupRepository = sessionRollupRepository;
+        this.chunkDays = chunkDays;
+        this.executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(threads);
+        executor.setMaxPoolSize(threads);
+        executor.setThreadNamePrefix("SessionRollup-");
+        executor.initialize();
+    }
+
+    @Override
+    public CompletableFuture<SessionRollupRebuildResultDTO> rebuild(LocalDate startDate, LocalDate endDate) {
+        if (startDate == null || endDate == null) {
+            throw new ValidationException("Start and end dates are required");
+        }
+        if (endDate.isBefore(startDate)) {
+            throw new ValidationException("End date must not be before start date");
+        }
+        if (!running.compareAndSet(false, true)) {
+            throw new ValidationException("Session rollup rebuild is already running");
+        }
+        try {
+            log.info("Rebuilding session rollup {} - {}", startDate, endDate);
+            long start = System.nanoTime();
+
+            List<CompletableFuture<Integer>> chunks = new ArrayList<>();
+            for (LocalDate from = startDate; !from.isAfter(endDate); from = from.plusDays(chunkDays)) {
+                LocalDate chunkStart = from;
+                LocalDate chunkEnd = from.plusDays(chunkDays - 1L).isAfter(endDate) ? endDate : from.plusDays(chunkDays - 1L);
+                chunks.add(CompletableFuture
+                        .supplyAsync(() -> sessionRollupRepository.rebuild(chunkStart, chunkEnd), executor)
+                        .exceptionally(e -> {
+                            log.error("Failed to rebuild session rollup {} - {}", chunkStart, chunkEnd, e);
+                            return -1;
+                        }));
+            }
+
+            return CompletableFuture.allOf(chunks.toArray(CompletableFuture[]::new))
+                    .thenApply(done -> {
+                        long rows = chunks.stream().mapToInt(CompletableFuture::join).filter(n -> n >= 0).sum();
+                        int failed = (int) chunks.stream().filter(chunk -> chunk.join() < 0).count();
+                        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+                        log.info("Rebuilt session rollup {} - {} in {} ms: {} rows, {} of {} chunks failed",
+                                startDate, endDate, elapsedMillis, rows, failed, chunks.size());
+                        return new SessionRollupRebuildResultDTO(startDate, endDate, chunks.size(), failed,
+                                rows, elapsedMillis);
+                    })
+                    .whenComplete((result, e) -> running.set(false));
+        } catch (RuntimeException e) {
+            running.set(false);
+            throw e;
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
@@ -1,55 +1,103 @@
 package com.novavista.binaa.center.services.impl;
 
 import com.novavista.binaa.center.dto.request.SessionDTO;
+import com.novavista.binaa.center.dto.request.SessionSeriesDTO;
 import com.novavista.binaa.center.dto.response.SessionResponseDTO;
+import com.novavista.binaa.center.dto.response.SessionSeriesResponseDTO;
+import com.novavista.binaa.center.dto.response.SessionStatsBucketDTO;
+import com.novavista.binaa.center.dto.response.SessionStatsDTO;
 import com.novavista.binaa.center.entity.Case;
 import com.novavista.binaa.center.entity.Session;
 import com.novavista.binaa.center.entity.Staff;
 import com.novavista.binaa.center.enums.AttendanceStatus;
 import com.novavista.binaa.center.enums.NotificationType;
+import com.novavista.binaa.center.enums.SessionRecurrence;
 import com.novavista.binaa.center.event.NotificationEvent;
 import com.novavista.binaa.center.exceptions.ResourceNotFoundException;
 import com.novavista.binaa.center.exceptions.ValidationException;
 import com.novavista.binaa.center.mapper.SessionMapper;
 import com.novavista.binaa.center.repository.CaseRepository;
 import com.novavista.binaa.center.repository.SessionRepository;
+import com.novavista.binaa.center.repository.SessionRepository.SessionStatsAggregate;
+import com.novavista.binaa.center.repository.SessionRollupRepository;
 import com.novavista.binaa.center.repository.StaffRepository;
 import com.novavista.binaa.center.services.SessionService;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.time.LocalDateTime;
+import java.time.LocalTime;
 import java.time.format.DateTimeFormatter;
-import java.util.HashMap;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @Slf4j
 @Transactional
 public class SessionServiceImpl implements SessionService {
+    private static final LocalTime LAST_SECOND_OF_DAY = LocalTime.of(23, 59, 59);
+    private static final int MAX_SERIES_OCCURRENCES = 52;
+    private static final String INSERT_SESSION =
+            "INSERT INTO sessions (case_id, purpose, session_date, notes, staff_id, session_type, " +
+                    "attendance_status, duration, series_id) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
     private final SessionRepository sessionRepository;
+    private final SessionRollupRepository sessionRollupRepository;
     private final CaseRepository caseRepository;
     private final StaffRepository staffRepository;
     private final SessionMapper sessionMapper;
     private final NotificationEventPublisher notificationPublisher;
+    private final JdbcTemplate jdbcTemplate;
+    private final UpcomingSessionCache upcomingSessionCache;
+    private final ObjectMapper objectMapper;
+    private final ObjectWriter sessionWriter;
+    private final boolean readFromRollup;
 
 
     @Autowired
     public SessionServiceImpl(SessionRepository sessionRepository,
+                              SessionRollupRepository sessionRollupRepository,
                               CaseRepository caseRepository,
                               StaffRepository staffRepository,
                               SessionMapper sessionMapper,
-                              NotificationEventPublisher notificationPublisher
+                              NotificationEventPublisher notificationPublisher,
+                              JdbcTemplate jdbcTemplate,
+                              UpcomingSessionCache upcomingSessionCache,
+                              ObjectMapper objectMapper,
+                              @Value("${app.sessions.rollup.read-enabled:true}") boolean readFromRollup
     ) {
         this.sessionRepository = sessionRepository;
+        this.sessionRollupRepository = sessionRollupRepository;
         this.caseRepository = caseRepository;
         this.staffRepository = staffRepository;
         this.sessionMapper = sessionMapper;
         this.notificationPublisher = notificationPublisher;
+        this.jdbcTemplate = jdbcTemplate;
+        this.upcomingSessionCache = upcomingSessionCache;
+        this.objectMapper = objectMapper;
+        // The generator buffers output; flushing after every row would mean one network write per session
+        this.sessionWriter = objectMapper.writerFor(SessionResponseDTO.class)
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        this.readFromRollup = readFromRollup;
     }
 
     @Override
@@ -60,6 +108,46 @@ public class SessionServiceImpl implements SessionService {
         return sessionMapper.toResponseDtoList(sessions);
     }
 
+    @Override
+    @Transactional(readOnly = true)
+    public void writeAllSessions(OutputStream out) {
+        log.info("Streaming all sessions");
+        writeSessions(sessionRepository.streamAll(), out);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void writeSessionsByCase(Long caseId, OutputStream out) {
+        log.info("Streaming sessions for case ID: {}", caseId);
+        if (!caseRepository.existsById(caseId)) {
+            throw new ResourceNotFoundException("Case not found");
+        }
+        writeSessions(sessionRepository.streamByCaseId(caseId), out);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void writeSessionsByDateRange(LocalDateTime start, LocalDateTime end, OutputStream out) {
+        log.info("Streaming sessions between {} and {}", start, end);
+        writeSessions(sessionRepository.streamBySessionDateBetween(start, end), out);
+    }
+
+    private void writeSessions(Stream<SessionResponseDTO> sessions, OutputStream out) {
+        long count = 0;
+        try (sessions; JsonGenerator generator = objectMapper.getFactory().createGenerator(out)) {
+            // The servlet container owns the response stream
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            generator.writeStartArray();
+            for (Iterator<SessionResponseDTO> it = sessions.iterator(); it.hasNext(); count++) {
+                sessionWriter.writeValue(generator, it.next());
+            }
+            generator.writeEndArray();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to stream sessions", e);
+        }
+        log.debug("Streamed {} sessions", count);
+    }
+
     @Override
     @Transactional(readOnly = true)
     public SessionResponseDTO getSessionById(Long id) {
@@ -84,6 +172,8 @@ public class SessionServiceImpl implements SessionService {
         session.setStaff(staff);
 
         Session savedSession = sessionRepository.save(session);
+        sessionRollupRepository.add(SessionRollupRepository.Entry.of(savedSession));
+        upcomingSessionCache.evict(staff.getStaffId());
         log.info("Created session with ID: {}", savedSession.getSessionId());
 
         // Publish notification event
@@ -107,12 +197,126 @@ public class SessionServiceImpl implements SessionService {
         return sessionMapper.toResponseDto(sessionWithDetails);
     }
 
+    /**
+     * Sessions are inserted with one JDBC batch, which the driver rewrites into a
+     * single multi-row insert; IDENTITY keys would make Hibernate insert them one by one.
+     */
+    @Override
+    public SessionSeriesResponseDTO createSessionSeries(SessionSeriesDTO seriesDTO) {
+        log.info("Creating session series for case ID: {}", seriesDTO.getCaseId());
+        List<LocalDateTime> dates = validateSeries(seriesDTO);
+
+        Case caseEntity = caseRepository.findById(seriesDTO.getCaseId())
+                .orElseThrow(() -> new ResourceNotFoundException("Case not found"));
+        Staff staff = staffRepository.findById(seriesDTO.getStaffId())
+                .orElseThrow(() -> new ResourceNotFoundException("Staff not found"));
+        validateNoClashes(staff.getStaffId(), dates, seriesDTO.getDuration());
+
+        String seriesId = UUID.randomUUID().toString();
+        List<Object[]> rows = new ArrayList<>(dates.size());
+        List<SessionRollupRepository.Entry> rollupEntries = new ArrayList<>(dates.size());
+        for (LocalDateTime date : dates) {
+            rows.add(new Object[]{caseEntity.getCaseId(), seriesDTO.getPurpose(), date, seriesDTO.getNotes(),
+                    staff.getStaffId(), seriesDTO.getSessionType().name(), seriesDTO.getAttendanceStatus().name(),
+                    seriesDTO.getDuration(), seriesId});
+            rollupEntries.add(new SessionRollupRepository.Entry(date.toLocalDate(), staff.getStaffId(),
+                    caseEntity.getCaseId(), seriesDTO.getSessionType(), seriesDTO.getAttendanceStatus(),
+                    seriesDTO.getDuration()));
+        }
+        jdbcTemplate.batchUpdate(INSERT_SESSION, rows);
+        sessionRollupRepository.addAll(rollupEntries);
+        upcomingSessionCache.evict(staff.getStaffId());
+
+        List<SessionResponseDTO> sessions = sessionRepository.findBySeriesId(seriesId);
+        log.info("Created session series {} with {} sessions", seriesId, sessions.size());
+
+        // One notification for the whole series
+        DateTimeFormatter dateFormat = DateTimeFormatter.ofPattern("dd/MM/yyyy");
+        notificationPublisher.publishNotificationEvent(
+                NotificationEvent.builder()
+                        .userId(staff.getStaffId())
+                        .type(NotificationType.SESSION)
+                        .title("سلسلة جلسات جديدة")
+                        .message("تم تحديد " + dates.size() + " جلسات من " +
+                                dates.get(0).format(dateFormat) + " إلى " +
+                                dates.get(dates.size() - 1).format(dateFormat))
+                        .data(Map.of(
+                                "seriesId", seriesId,
+                                "caseId", caseEntity.getCaseId(),
+                                "sessionCount", dates.size(),
+                                "firstSessionDate", dates.get(0),
+                                "lastSessionDate", dates.get(dates.size() - 1)
+                        ))
+                        .build()
+        );
+
+        return new SessionSeriesResponseDTO(seriesId, seriesDTO.getRecurrence(), sessions);
+    }
+
+    /**
+     * Validates the shared fields once, through the first occurrence, and the recurrence
+     * @return the date of every occurrence
+     */
+    private List<LocalDateTime> validateSeries(SessionSeriesDTO seriesDTO) {
+        validateSession(new SessionDTO(null, seriesDTO.getCaseId(), seriesDTO.getPurpose(),
+                seriesDTO.getFirstSessionDate(), seriesDTO.getNotes(), seriesDTO.getStaffId(),
+                seriesDTO.getSessionType(), seriesDTO.getAttendanceStatus(), seriesDTO.getDuration()));
+        if (seriesDTO.getAttendanceStatus() == null) {
+            throw new ValidationException("Attendance status is required");
+        }
+        if (seriesDTO.getRecurrence() == null) {
+            throw new ValidationException("Recurrence is required");
+        }
+        if (seriesDTO.getOccurrences() == null || seriesDTO.getOccurrences() < 1
+                || seriesDTO.getOccurrences() > MAX_SERIES_OCCURRENCES) {
+            throw new ValidationException("Occurrences must be between 1 and " + MAX_SERIES_OCCURRENCES);
+        }
+
+        return occurrenceDates(seriesDTO.getFirstSessionDate(), seriesDTO.getRecurrence(), seriesDTO.getOccurrences());
+    }
+
+    static List<LocalDateTime> occurrenceDates(LocalDateTime first, SessionRecurrence recurrence, int occurrences) {
+        List<LocalDateTime> dates = new ArrayList<>(occurrences);
+        for (int i = 0; i < occurrences; i++) {
+            dates.add(first.plusWeeks((long) i * recurrence.getIntervalWeeks()));
+        }
+        return dates;
+    }
+
+    /**
+     * Rejects the series if any occurrence overlaps a session the staff member
+     * already has; the existing sessions are read with one range query
+     */
+    private void validateNoClashes(Long staffId, List<LocalDateTime> dates, int duration) {
+        List<SessionResponseDTO> existing = sessionRepository.findUpcomingByStaffId(staffId,
+                dates.get(0).minusDays(1), dates.get(dates.size() - 1).plusDays(1));
+        List<LocalDateTime> clashes = findClashes(dates, duration, existing);
+        if (!clashes.isEmpty()) {
+            throw new ValidationException("Staff already has sessions at " + clashes.stream()
+                    .map(date -> date.format(DateTimeFormatter.ofPattern("dd/MM/yyyy HH:mm")))
+                    .collect(Collectors.joining(", ")));
+        }
+    }
+
+    /**
+     * @return the occurrences whose time overlaps an existing session; touching ends do not overlap
+     */
+    static List<LocalDateTime> findClashes(List<LocalDateTime> dates, int duration, List<SessionResponseDTO> existing) {
+        return dates.stream()
+                .filter(date -> existing.stream().anyMatch(session ->
+                        session.getSessionDate().isBefore(date.plusMinutes(duration))
+                                && date.isBefore(session.getSessionDate().plusMinutes(
+                                        session.getDuration() == null ? 0 : session.getDuration()))))
+                .toList();
+    }
+
     @Override
     public SessionResponseDTO updateSession(Long id, SessionDTO sessionDTO) {
         log.info("Updating session ID: {}", id);
 
         Session existingSession = sessionRepository.findByIdWithDetails(id)
                 .orElseThrow(() -> new ResourceNotFoundException("Session not found"));
+        SessionRollupRepository.Entry rollupBefore = SessionRollupRepository.Entry.of(existingSession);
 
         // Only validate fields that are being updated
         if (sessionDTO.getPurpose() != null || sessionDTO.getSessionDate() != null
@@ -158,6 +362,8 @@ public class SessionServiceImpl implements SessionService {
         }
 
         Session updatedSession = sessionRepository.save(existingSession);
+        sessionRollupRepository.replace(rollupBefore, SessionRollupRepository.Entry.of(updatedSession));
+        upcomingSessionCache.evict(rollupBefore.staffId(), staffIdOf(updatedSession));
         log.info("Updated session ID: {}", id);
 
         Session sessionWithDetails = sessionRepository.findByIdWithDetails(updatedSession.getSessionId())
@@ -165,6 +371,10 @@ public class SessionServiceImpl implements SessionService {
         return sessionMapper.toResponseDto(sessionWithDetails);
     }
 
+    private static Long staffIdOf(Session session) {
+        return session.getStaff() == null ? null : session.getStaff().getStaffId();
+    }
+
     private void validatePartialUpdate(SessionDTO sessionDTO, Session existingSession) {
         if (sessionDTO.getPurpose() != null && sessionDTO.getPurpose().trim().isEmpty()) {
             throw new ValidationException("Session purpose cannot be empty");
@@ -226,11 +436,34 @@ public class SessionServiceImpl implements SessionService {
         return sessionMapper.toResponseDtoList(sessions);
     }
 
+    @Override
+    // Served from the cache most of the time, which should not hold a connection
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public List<SessionResponseDTO> getUpcomingSessions(Long staffId) {
+        // Checked first, so unknown IDs never get a cache entry
+        if (staffId != null && !staffRepository.existsById(staffId)) {
+            throw new ResourceNotFoundException("Staff not found");
+        }
+        return upcomingSessionCache.get(staffId, start -> {
+            LocalDateTime end = start.plus(UpcomingSessionCache.WINDOW);
+            return staffId == null
+                    ? sessionRepository.findUpcoming(start, end)
+                    : sessionRepository.findUpcomingByStaffId(staffId, start, end);
+        });
+    }
+
     @Override
     public void deleteSession(Long id) {
         log.info("Deleting session ID: {}", id);
+        Session session = sessionRepository.findById(id).orElse(null);
+        if (session == null) {
+            return;
+        }
         try {
-            sessionRepository.deleteById(id);
+            sessionRepository.delete(session);
+            sessionRepository.flush();
+            sessionRollupRepository.remove(SessionRollupRepository.Entry.of(session));
+            upcomingSessionCache.evict(staffIdOf(session));
             log.info("Deleted session ID: {}", id);
         } catch (DataIntegrityViolationException e) {
             log.error("Failed to delete session: {}", e.getMessage());
@@ -238,31 +471,100 @@ public class SessionServiceImpl implements SessionService {
         }
     }
 
-    public Map<String, Object> getSessionStats(LocalDateTime start, LocalDateTime end) {
-        List<SessionResponseDTO> sessions = getSessionsByDateRange(start, end);
+    @Override
+    @Transactional(readOnly = true)
+    public SessionStatsDTO getSessionStats(LocalDateTime start, LocalDateTime end) {
+        if (start == null || end == null || end.isBefore(start)) {
+            throw new ValidationException("A valid date range is required");
+        }
+        // The rollup holds whole days, so it can only answer ranges that cover whole days
+        boolean wholeDays = start.toLocalTime().equals(LocalTime.MIDNIGHT) && !end.toLocalTime().isBefore(LAST_SECOND_OF_DAY);
+        List<SessionStatsAggregate> rows = readFromRollup && wholeDays
+                ? sessionRepository.aggregateSessionStatsFromRollup(start.toLocalDate(), end.toLocalDate())
+                : sessionRepository.aggregateSessionStats(start, end);
+
+        // Fold the fine-grained rows into each breakdown; keys keep the query's day order
+        StatsBucket total = new StatsBucket(null, null);
+        Map<String, StatsBucket> byDay = new LinkedHashMap<>();
+        Map<String, StatsBucket> byStaff = new LinkedHashMap<>();
+        Map<String, StatsBucket> byType = new LinkedHashMap<>();
+        long presentMinutes = 0;
+        long absentMinutes = 0;
+        for (SessionStatsAggregate row : rows) {
+            String staffId = row.getStaffId() == null ? null : row.getStaffId().toString();
+            total.add(row);
+            byDay.computeIfAbsent(row.getSessionDay(), day -> new StatsBucket(day, day)).add(row);
+            byStaff.computeIfAbsent(staffId, id -> new StatsBucket(id, row.getStaffName())).add(row);
+            byType.computeIfAbsent(row.getSessionType(), type -> new StatsBucket(type, type)).add(row);
+            presentMinutes += valueOf(row.getPresentMinutes());
+            absentMinutes += valueOf(row.getAbsentMinutes());
+        }
+        List<SessionStatsBucketDTO> byStatus = new ArrayList<>(2);
+        if (total.present > 0) {
+            byStatus.add(StatsBucket.ofStatus(AttendanceStatus.PRESENT, total.present, presentMinutes));
+        }
+        if (total.absent > 0) {
+            byStatus.add(StatsBucket.ofStatus(AttendanceStatus.ABSENT, total.absent, absentMinutes));
+        }
+        log.debug("Session stats {} - {}: {} sessions from {} aggregate rows", start, end, total.sessions, rows.size());
+
+        return new SessionStatsDTO(start, end,
+                total.sessions,
+                total.present,
+                total.absent,
+                total.sessions == 0 ? 0.0 : (double) total.present / total.sessions * 100.0,
+                total.minutes,
+                total.averageDuration(),
+                toBuckets(byDay),
+                toBuckets(byStaff),
+                toBuckets(byType),
+                byStatus);
+    }
 
-        Map<String, Object> stats = new HashMap<>();
-        stats.put("totalSessions", sessions.size());
-        stats.put("attendanceRate", calculateAttendanceRate(sessions));
-        stats.put("cancelledSessions", countCancelledSessions(sessions));
+    private static List<SessionStatsBucketDTO> toBuckets(Map<String, StatsBucket> buckets) {
+        return buckets.values().stream().map(StatsBucket::toDto).toList();
+    }
 
-        return stats;
+    private static long valueOf(Long value) {
+        return value == null ? 0 : value;
     }
 
-    private double calculateAttendanceRate(List<SessionResponseDTO> sessions) {
-        if (sessions.isEmpty()) return 0.0;
+    private static final class StatsBucket {
+        private final String key;
+        private final String label;
+        private long sessions;
+        private long present;
+        private long absent;
+        private long minutes;
+
+        private StatsBucket(String key, String label) {
+            this.key = key;
+            this.label = label;
+        }
 
-        long presentSessions = sessions.stream()
-                .filter(session -> session.getAttendanceStatus() == AttendanceStatus.PRESENT)
-                .count();
+        private static SessionStatsBucketDTO ofStatus(AttendanceStatus status, long sessions, long minutes) {
+            StatsBucket bucket = new StatsBucket(status.name(), status.name());
+            bucket.sessions = sessions;
+            bucket.present = status == AttendanceStatus.PRESENT ? sessions : 0;
+            bucket.absent = status == AttendanceStatus.ABSENT ? sessions : 0;
+            bucket.minutes = minutes;
+            return bucket.toDto();
+        }
 
-        return (double) presentSessions / sessions.size() * 100.0;
-    }
+        private void add(SessionStatsAggregate row) {
+            sessions += valueOf(row.getTotalSessions());
+            present += valueOf(row.getPresentSessions());
+            absent += valueOf(row.getAbsentSessions());
+            minutes += valueOf(row.getTotalMinutes());
+        }
+
+        private Double averageDuration() {
+            return sessions == 0 ? null : Math.round(minutes * 10.0 / sessions) / 10.0;
+        }
 
-    private long countCancelledSessions(List<SessionResponseDTO> sessions) {
-        return sessions.stream()
-                .filter(session -> session.getAttendanceStatus() == AttendanceStatus.ABSENT)
-                .count();
+        private SessionStatsBucketDTO toDto() {
+            return new SessionStatsBucketDTO(key, label, sessions, present, absent, minutes, averageDuration());
+        }
     }
 
     private void validateSession(SessionDTO sessionDTO) {
@@ -0,0 +1,62 @@
+package com.novavista.binaa.center.services.impl;
+
+import com.novavista.binaa.center.exceptions.PayloadTooLargeException;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Counts bytes as they are read and fails as soon as the limit is crossed,
+ * so an oversized upload is rejected without being read to the end.
+ */
+public class SizeLimitedInputStream extends FilterInputStream {
+    private final long maxBytes;
+    private long count;
+
+    public SizeLimitedInputStream(InputStream in, long maxBytes) {
+        super(in);
+        this.maxBytes = maxBytes;
+    }
+
+    @Override
+    public int read() throws IOException {
+        int b = super.read();
+        if (b != -1) {
+            advance(1);
+        }
+        return b;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        int n = super.read(b, off, len);
+        if (n > 0) {
+            advance(n);
+        }
+        return n;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+        long skipped = super.skip(n);
+        advance(skipped);
+        return skipped;
+    }
+
+    @Override
+    public boolean markSupported() {
+        return false;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    private void advance(long n) {
+        count += n;
+        if (count > maxBytes) {
+            throw new PayloadTooLargeException("File size exceeds maximum limit of " + maxBytes + " bytes");
+        }
+    }
+}
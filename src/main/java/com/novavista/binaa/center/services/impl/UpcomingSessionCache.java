@@ -0,0 +1,105 @@
+package com.novavista.binaa.center.services.impl;
+
+import com.novavista.binaa.center.dto.response.SessionResponseDTO;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Holds each staff member's sessions for the next {@link #WINDOW} for a short
+ * time, since the upcoming list is polled from every home screen. A window is
+ * dropped once a session of its staff member changes, and sessions that have
+ * started since it was loaded are filtered out when it is served.
+ */
+@Component
+@Slf4j
+public class UpcomingSessionCache {
+    static final Duration WINDOW = Duration.ofDays(7);
+
+    // Key of the window holding the sessions of all staff
+    private static final Long ALL_STAFF = Long.MIN_VALUE;
+
+    private final long ttlMillis;
+    private final Map<Long, CachedWindow> windows = new ConcurrentHashMap<>();
+    // Bumped on every eviction, so a window loaded before a change is not stored after it;
+    // only evicted keys have an entry, a missing one counts as generation 0
+    private final Map<Long, AtomicLong> generations = new ConcurrentHashMap<>();
+
+    public UpcomingSessionCache(@Value("${app.sessions.upcoming.cache-ttl:PT30S}") Duration ttl) {
+        this.ttlMillis = ttl.toMillis();
+    }
+
+    /**
+     * Returns the upcoming sessions of a staff member, loading them on a miss
+     * @param staffId the staff ID, or null for all staff
+     * @param loader reads the sessions starting from the given time, within {@link #WINDOW}
+     * @return upcoming sessions in date order
+     */
+    public List<SessionResponseDTO> get(Long staffId, Function<LocalDateTime, List<SessionResponseDTO>> loader) {
+        Long key = staffId == null ? ALL_STAFF : staffId;
+        CachedWindow cached = windows.get(key);
+        long now = System.currentTimeMillis();
+        if (cached == null || now - cached.loadedAt >= ttlMillis) {
+            long generation = currentGeneration(key);
+            CachedWindow loaded = new CachedWindow(loader.apply(LocalDateTime.now()), now);
+            windows.compute(key, (k, current) -> currentGeneration(key) == generation ? loaded : current);
+            cached = loaded;
+        }
+
+        LocalDateTime cutoff = LocalDateTime.now();
+        return cached.sessions.stream()
+                .filter(session -> !session.getSessionDate().isBefore(cutoff))
+                .toList();
+    }
+
+    /**
+     * Drops the windows a changed session may appear in. Inside a transaction this
+     * happens after commit, so the next load sees the change.
+     * @param staffIds staff the session belonged to before and after the change
+     */
+    public void evict(Long... staffIds) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evictNow(staffIds);
+                }
+            });
+        } else {
+            evictNow(staffIds);
+        }
+    }
+
+    private void evictNow(Long... staffIds) {
+        for (Long staffId : staffIds) {
+            if (staffId != null) {
+                invalidate(staffId);
+            }
+        }
+        invalidate(ALL_STAFF);
+        log.debug("Evicted upcoming sessions of staff {}", (Object) staffIds);
+    }
+
+    private void invalidate(Long key) {
+        generations.computeIfAbsent(key, k -> new AtomicLong()).incrementAndGet();
+        windows.remove(key);
+    }
+
+    private long currentGeneration(Long key) {
+        AtomicLong generation = generations.get(key);
+        return generation == null ? 0 : generation.get();
+    }
+
+    private record CachedWindow(List<SessionResponseDTO> sessions, long loadedAt) {
+    }
+}
@@ -0,0 +1,4 @@
+-- Session statistics also group by session type; appending it keeps the
+-- attendance index covering for both the attendance report and the stats query.
+DROP INDEX idx_sessions_attendance ON sessions;
+CREATE INDEX idx_sessions_attendance ON sessions(session_date, case_id, staff_id, attendance_status, duration, session_type);
@@ -0,0 +1,34 @@
+-- Per-day session totals for dashboards, kept up to date by the session service
+-- and rebuilt from sessions on demand. Sessions without a staff member or case
+-- are counted under ID 0, since primary key columns cannot be NULL.
+CREATE TABLE session_daily_rollup (
+    rollup_date DATE NOT NULL,
+    staff_id INT UNSIGNED NOT NULL,
+    case_id INT UNSIGNED NOT NULL,
+    session_type ENUM('INDIVIDUAL','GROUP') NOT NULL,
+    session_count INT NOT NULL DEFAULT 0,
+    present_count INT NOT NULL DEFAULT 0,
+    absent_count INT NOT NULL DEFAULT 0,
+    total_minutes INT NOT NULL DEFAULT 0,
+    present_minutes INT NOT NULL DEFAULT 0,
+    absent_minutes INT NOT NULL DEFAULT 0,
+    PRIMARY KEY (rollup_date, staff_id, case_id, session_type),
+    INDEX idx_rollup_case (case_id, rollup_date),
+    INDEX idx_rollup_staff (staff_id, rollup_date)
+);
+
+INSERT INTO session_daily_rollup (rollup_date, staff_id, case_id, session_type,
+                                  session_count, present_count, absent_count,
+                                  total_minutes, present_minutes, absent_minutes)
+SELECT DATE(s.session_date),
+       COALESCE(s.staff_id, 0),
+       COALESCE(s.case_id, 0),
+       s.session_type,
+       COUNT(*),
+       SUM(s.attendance_status = 'PRESENT'),
+       SUM(s.attendance_status = 'ABSENT'),
+       COALESCE(SUM(s.duration), 0),
+       COALESCE(SUM(IF(s.attendance_status = 'PRESENT', s.duration, 0)), 0),
+       COALESCE(SUM(IF(s.attendance_status = 'ABSENT', s.duration, 0)), 0)
+FROM sessions s
+GROUP BY DATE(s.session_date), COALESCE(s.staff_id, 0), COALESCE(s.case_id, 0), s.session_type;
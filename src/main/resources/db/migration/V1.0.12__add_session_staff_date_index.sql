@@ -0,0 +1,2 @@
+-- Upcoming sessions are read per staff member and date range
+CREATE INDEX idx_sessions_staff_date ON sessions(staff_id, session_date);
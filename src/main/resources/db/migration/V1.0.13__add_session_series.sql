@@ -0,0 +1,3 @@
+-- Sessions booked together as a recurring series share a series ID
+ALTER TABLE sessions ADD COLUMN series_id CHAR(36) NULL;
+CREATE INDEX idx_sessions_series ON sessions(series_id);
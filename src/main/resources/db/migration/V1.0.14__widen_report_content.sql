@@ -0,0 +1,2 @@
+-- Progress reports over a long history outgrow TEXT (64 KB, about 32K Arabic characters)
+ALTER TABLE reports MODIFY report_content MEDIUMTEXT NOT NULL;
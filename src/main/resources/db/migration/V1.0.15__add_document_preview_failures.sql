@@ -0,0 +1,3 @@
+-- Content hash of the last content that could not be rendered as a thumbnail, so
+-- the backfill skips it until the content is replaced.
+ALTER TABLE documents ADD COLUMN preview_failed_hash CHAR(64) NULL AFTER preview_hash;
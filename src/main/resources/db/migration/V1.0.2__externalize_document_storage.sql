@@ -0,0 +1,5 @@
+-- Document payloads move to content-addressed storage; file_data is kept for
+-- rows that have not been migrated yet and is cleared once they are.
+ALTER TABLE documents ADD COLUMN content_hash CHAR(64) NULL AFTER content_type;
+
+CREATE INDEX idx_documents_content_hash ON documents(content_hash);
@@ -0,0 +1,21 @@
+-- Resumable chunked uploads; chunk data lives in the file storage temp area
+CREATE TABLE IF NOT EXISTS document_uploads (
+    upload_id CHAR(36) PRIMARY KEY,
+    case_id INT UNSIGNED NOT NULL,
+    type ENUM('MEDICAL','ASSESSMENT','PROGRESS_REPORT'),
+    file_name VARCHAR(255),
+    content_type VARCHAR(100),
+    total_size BIGINT NOT NULL,
+    chunk_size INT NOT NULL,
+    total_chunks INT NOT NULL,
+    status VARCHAR(20) NOT NULL DEFAULT 'IN_PROGRESS',
+    created_by INT UNSIGNED,
+    created_at DATETIME NOT NULL,
+    expires_at DATETIME NOT NULL,
+    document_id INT UNSIGNED,
+    FOREIGN KEY (case_id) REFERENCES cases(case_id),
+    FOREIGN KEY (created_by) REFERENCES users(user_id),
+    FOREIGN KEY (document_id) REFERENCES documents(document_id) ON DELETE SET NULL
+);
+
+CREATE INDEX idx_document_uploads_expires_at ON document_uploads(expires_at);
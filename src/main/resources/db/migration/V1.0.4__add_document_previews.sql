@@ -0,0 +1,5 @@
+-- Thumbnails rendered in the background are stored in DocumentStorage next to
+-- the document content; preview_hash is their storage key.
+ALTER TABLE documents ADD COLUMN preview_hash CHAR(64) NULL AFTER content_hash;
+
+CREATE INDEX idx_documents_preview_hash ON documents(preview_hash);
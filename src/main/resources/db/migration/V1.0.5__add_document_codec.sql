@@ -0,0 +1,7 @@
+-- Compressible payloads are deflated before they reach DocumentStorage.
+-- file_size keeps the original size; stored_size is what the storage holds.
+ALTER TABLE documents
+    ADD COLUMN codec VARCHAR(16) NOT NULL DEFAULT 'NONE' AFTER preview_hash,
+    ADD COLUMN stored_size BIGINT NULL AFTER file_size;
+
+UPDATE documents SET stored_size = file_size WHERE content_hash IS NOT NULL;
@@ -0,0 +1,29 @@
+-- Queued report generation. active_request_hash is only set while a job is
+-- QUEUED or RUNNING; its unique key stops identical requests from queueing twice.
+CREATE TABLE IF NOT EXISTS report_jobs (
+    job_id INT UNSIGNED AUTO_INCREMENT PRIMARY KEY,
+    request_hash CHAR(64) NOT NULL,
+    active_request_hash CHAR(64) NULL,
+    case_id INT UNSIGNED NOT NULL,
+    session_id INT UNSIGNED,
+    report_type VARCHAR(20) NOT NULL,
+    start_date DATE,
+    end_date DATE,
+    template_id VARCHAR(50),
+    parameters TEXT,
+    status VARCHAR(20) NOT NULL,
+    attempts INT NOT NULL DEFAULT 0,
+    error_message VARCHAR(1000),
+    report_id INT UNSIGNED,
+    created_by INT UNSIGNED,
+    created_at DATETIME NOT NULL,
+    started_at DATETIME,
+    finished_at DATETIME,
+    UNIQUE KEY uk_report_jobs_active_request (active_request_hash),
+    FOREIGN KEY (case_id) REFERENCES cases(case_id) ON DELETE CASCADE,
+    FOREIGN KEY (session_id) REFERENCES sessions(session_id) ON DELETE SET NULL,
+    FOREIGN KEY (report_id) REFERENCES reports(report_id) ON DELETE SET NULL,
+    FOREIGN KEY (created_by) REFERENCES users(user_id)
+);
+
+CREATE INDEX idx_report_jobs_status_created ON report_jobs(status, created_at);
@@ -0,0 +1,5 @@
+-- Covering indexes for attendance aggregation: every column the report reads
+-- is in the index, so a date range is answered from the index alone.
+-- The second one serves reports for a single case.
+CREATE INDEX idx_sessions_attendance ON sessions(session_date, case_id, staff_id, attendance_status, duration);
+CREATE INDEX idx_sessions_case_attendance ON sessions(case_id, session_date, staff_id, attendance_status, duration);
@@ -0,0 +1,5 @@
+-- Report search filters on case or type and orders by date. InnoDB appends the
+-- primary key to secondary indexes, so both also serve the
+-- (created_date DESC, report_id DESC) seek order without a filesort.
+CREATE INDEX idx_reports_case_created ON reports(case_id, created_date);
+CREATE INDEX idx_reports_type_created ON reports(report_type, created_date);
@@ -0,0 +1,5 @@
+-- Month (yyyy-MM) of progress reports generated by the nightly batch. The unique
+-- key lets a rerun replace the month's report; on-request reports keep NULL and
+-- are not constrained by it.
+ALTER TABLE reports ADD COLUMN report_period CHAR(7) NULL;
+ALTER TABLE reports ADD UNIQUE KEY uk_reports_case_type_period (case_id, report_type, report_period);
@@ -0,0 +1,136 @@
+package com.novavista.binaa.center.repository;
+
+import com.novavista.binaa.center.entity.Case;
+import com.novavista.binaa.center.entity.Session;
+import com.novavista.binaa.center.entity.Staff;
+import com.novavista.binaa.center.enums.AttendanceStatus;
+import com.novavista.binaa.center.enums.SessionType;
+import com.novavista.binaa.center.repository.SessionRollupRepository.Entry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+class SessionRollupRepositoryTest {
+    private static final LocalDate DAY = LocalDate.of(2026, 3, 2);
+
+    private JdbcTemplate jdbcTemplate;
+    private SessionRollupRepository repository;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = mock(JdbcTemplate.class);
+        repository = new SessionRollupRepository(jdbcTemplate);
+    }
+
+    @Test
+    void entryTakesTheRollupKeyFromTheSession() {
+        Session session = session(7L, 3L, AttendanceStatus.PRESENT, 45);
+
+        assertThat(Entry.of(session))
+                .isEqualTo(new Entry(DAY, 7L, 3L, SessionType.INDIVIDUAL, AttendanceStatus.PRESENT, 45));
+    }
+
+    @Test
+    void entryKeepsSessionsWithoutStaffOrCaseUnderZero() {
+        Session session = session(null, null, null, null);
+
+        assertThat(Entry.of(session))
+                .isEqualTo(new Entry(DAY, 0, 0, SessionType.INDIVIDUAL, null, 0));
+    }
+
+    @Test
+    void addingCountsThePresentSessionAndItsMinutes() {
+        Entry entry = new Entry(DAY, 7L, 3L, SessionType.INDIVIDUAL, AttendanceStatus.PRESENT, 45);
+
+        assertThat(SessionRollupRepository.deltaRow(entry, 1))
+                .containsExactly(DAY, 7L, 3L, "INDIVIDUAL", 1, 1, 0, 45, 45, 0);
+    }
+
+    @Test
+    void removingSubtractsTheAbsentSessionAndItsMinutes() {
+        Entry entry = new Entry(DAY, 7L, 3L, SessionType.GROUP, AttendanceStatus.ABSENT, 30);
+
+        assertThat(SessionRollupRepository.deltaRow(entry, -1))
+                .containsExactly(DAY, 7L, 3L, "GROUP", -1, 0, -1, -30, 0, -30);
+    }
+
+    @Test
+    void sessionsWithoutAttendanceOnlyCountTowardsTheTotals() {
+        Entry entry = new Entry(DAY, 7L, 3L, SessionType.INDIVIDUAL, null, 60);
+
+        assertThat(SessionRollupRepository.deltaRow(entry, 1))
+                .containsExactly(DAY, 7L, 3L, "INDIVIDUAL", 1, 0, 0, 60, 0, 0);
+    }
+
+    @Test
+    void addingAndRemovingTheSameEntryCancelOut() {
+        Entry entry = new Entry(DAY, 7L, 3L, SessionType.INDIVIDUAL, AttendanceStatus.PRESENT, 45);
+        Object[] added = SessionRollupRepository.deltaRow(entry, 1);
+        Object[] removed = SessionRollupRepository.deltaRow(entry, -1);
+
+        for (int i = 4; i < added.length; i++) {
+            assertThat((Integer) added[i] + (Integer) removed[i]).isZero();
+        }
+    }
+
+    @Test
+    void unchangedSessionsDoNotTouchTheRollup() {
+        Entry entry = new Entry(DAY, 7L, 3L, SessionType.INDIVIDUAL, AttendanceStatus.PRESENT, 45);
+
+        repository.replace(entry, new Entry(DAY, 7L, 3L, SessionType.INDIVIDUAL, AttendanceStatus.PRESENT, 45));
+
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    @Test
+    void changedSessionsMoveBetweenRows() {
+        Entry before = new Entry(DAY, 7L, 3L, SessionType.INDIVIDUAL, AttendanceStatus.PRESENT, 45);
+        Entry after = new Entry(DAY.plusDays(1), 7L, 3L, SessionType.INDIVIDUAL, AttendanceStatus.PRESENT, 45);
+
+        repository.replace(before, after);
+
+        verify(jdbcTemplate, times(2)).update(startsWith("INSERT INTO session_daily_rollup"), any(Object[].class));
+        verify(jdbcTemplate, times(1)).update(startsWith("DELETE FROM session_daily_rollup"), any(Object[].class));
+    }
+
+    @Test
+    void addingNeverDeletesRows() {
+        repository.add(new Entry(DAY, 7L, 3L, SessionType.INDIVIDUAL, AttendanceStatus.PRESENT, 45));
+
+        verify(jdbcTemplate, never()).update(startsWith("DELETE"), any(Object[].class));
+        verify(jdbcTemplate).update(anyString(), any(Object[].class));
+    }
+
+    private static Session session(Long staffId, Long caseId, AttendanceStatus attendanceStatus, Integer duration) {
+        Session session = new Session();
+        session.setSessionDate(LocalDateTime.of(DAY, LocalTime.of(10, 30)));
+        if (staffId != null) {
+            Staff staff = new Staff();
+            staff.setStaffId(staffId);
+            session.setStaff(staff);
+        }
+        if (caseId != null) {
+            Case caseInfo = new Case();
+            caseInfo.setCaseId(caseId);
+            session.setCaseInfo(caseInfo);
+        }
+        session.setSessionType(SessionType.INDIVIDUAL);
+        session.setAttendanceStatus(attendanceStatus);
+        session.setDuration(duration);
+        return session;
+    }
+}
@@ -0,0 +1,60 @@
+package com.novavista.binaa.center.services.impl;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ArabicTextNormalizerTest {
+
+    @Test
+    void foldsAlefHamzaTaaMarbutaAndAlefMaqsura() {
+        assertThat(ArabicTextNormalizer.terms("أحمد إبراهيم آمال")).containsExactly("احمد", "ابراهيم", "امال");
+        assertThat(ArabicTextNormalizer.terms("مستشفى")).containsExactly("مستشفي");
+        assertThat(ArabicTextNormalizer.terms("مدرسة")).containsExactly("مدرسه");
+    }
+
+    @Test
+    void dropsDiacriticsAndTatweel() {
+        assertThat(ArabicTextNormalizer.terms("مُحَمَّد محـــمد")).containsExactly("محمد", "محمد");
+    }
+
+    @Test
+    void stripsDefiniteArticleAndItsPrefixedForms() {
+        assertThat(ArabicTextNormalizer.terms("المدرسة والكتاب للطفل بالبيت"))
+                .containsExactly("مدرسه", "كتاب", "طفل", "بيت");
+    }
+
+    @Test
+    void keepsArticleWhenTooLittleWouldBeLeft() {
+        assertThat(ArabicTextNormalizer.terms("الى")).containsExactly("الي");
+    }
+
+    @Test
+    void foldsPresentationFormsFromPdfExtraction() {
+        assertThat(ArabicTextNormalizer.terms("ﻣﺤﻤﺪ")).containsExactly("محمد");
+    }
+
+    @Test
+    void convertsArabicIndicAndPersianDigits() {
+        assertThat(ArabicTextNormalizer.terms("رقم ١٢٣ و ۴۵")).containsExactly("رقم", "123", "45");
+    }
+
+    @Test
+    void lowercasesLatinAndSplitsOnPunctuation() {
+        assertThat(ArabicTextNormalizer.terms("Hello, WORLD! speech-therapy"))
+                .containsExactly("hello", "world", "speech", "therapy");
+    }
+
+    @Test
+    void dropsSingleCharactersAndOverlongRuns() {
+        String longest = "x".repeat(ArabicTextNormalizer.MAX_TERM_LENGTH);
+        String tooLong = "y".repeat(ArabicTextNormalizer.MAX_TERM_LENGTH + 1);
+        assertThat(ArabicTextNormalizer.terms("a " + longest + " " + tooLong)).containsExactly(longest);
+    }
+
+    @Test
+    void returnsNoTermsForBlankText() {
+        assertThat(ArabicTextNormalizer.terms(null)).isEmpty();
+        assertThat(ArabicTextNormalizer.terms("   ")).isEmpty();
+    }
+}
@@ -0,0 +1,75 @@
+package com.novavista.binaa.center.services.impl;
+
+import com.novavista.binaa.center.repository.DocumentRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class DocumentContentSweeperTest {
+    @TempDir
+    Path location;
+
+    private LocalDocumentStorage storage;
+    private DocumentRepository documentRepository;
+    private DocumentContentSweeper sweeper;
+
+    @BeforeEach
+    void setUp() {
+        storage = new LocalDocumentStorage(location.toString());
+        documentRepository = mock(DocumentRepository.class);
+        sweeper = new DocumentContentSweeper(storage, documentRepository, Duration.ofHours(1));
+    }
+
+    @Test
+    void removesOnlyContentNoDocumentReferences() throws IOException {
+        String content = store("content");
+        String preview = store("preview");
+        String orphan = store("orphan");
+        ageAll();
+        when(documentRepository.countByContentHash(content)).thenReturn(1L);
+        when(documentRepository.countByPreviewHash(preview)).thenReturn(1L);
+
+        sweeper.sweep();
+
+        assertThat(storage.exists(content)).isTrue();
+        assertThat(storage.exists(preview)).isTrue();
+        assertThat(storage.exists(orphan)).isFalse();
+    }
+
+    @Test
+    void leavesContentWithinTheGracePeriod() throws IOException {
+        String orphan = store("orphan");
+
+        sweeper.sweep();
+
+        assertThat(storage.exists(orphan)).isTrue();
+    }
+
+    private String store(String text) throws IOException {
+        return storage.store(new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8))).getContentHash();
+    }
+
+    private void ageAll() throws IOException {
+        FileTime old = FileTime.from(Instant.now().minus(2, ChronoUnit.HOURS));
+        try (Stream<Path> files = Files.walk(location.resolve("documents"))) {
+            for (Path file : (Iterable<Path>) files.filter(Files::isRegularFile)::iterator) {
+                Files.setLastModifiedTime(file, old);
+            }
+        }
+    }
+}
@@ -0,0 +1,172 @@
+package com.novavista.binaa.center.services.impl;
+
+import com.novavista.binaa.center.dto.request.DocumentDTO;
+import com.novavista.binaa.center.dto.response.DocumentSearchResultDTO;
+import com.novavista.binaa.center.repository.DocumentRepository;
+import com.novavista.binaa.center.services.DocumentService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.clearInvocations;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class DocumentSearchServiceImplTest {
+    @TempDir
+    Path storageRoot;
+
+    private DocumentRepository documentRepository;
+    private DocumentService documentService;
+    private final List<DocumentDTO> stored = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        documentRepository = mock(DocumentRepository.class);
+        documentService = mock(DocumentService.class);
+        when(documentRepository.findAllMetadata()).thenReturn(stored);
+    }
+
+    @Test
+    void ranksDocumentsWithMoreOccurrencesFirst() {
+        DocumentSearchServiceImpl index = newIndex();
+        store(1L, "therapy therapy session notes");
+        store(2L, "therapy plan for the family");
+        store(3L, "unrelated words only");
+        index.indexDocument(1L);
+        index.indexDocument(2L);
+        index.indexDocument(3L);
+
+        assertThat(ids(index.search("therapy", 10))).containsExactly(1L, 2L);
+    }
+
+    @Test
+    void weighsRareTermsAboveCommonOnes() {
+        DocumentSearchServiceImpl index = newIndex();
+        store(1L, "alpha filler");
+        store(2L, "alpha filler");
+        store(3L, "zeta filler");
+        index.indexDocument(1L);
+        index.indexDocument(2L);
+        index.indexDocument(3L);
+
+        List<DocumentSearchResultDTO> results = index.search("alpha zeta", 10);
+
+        assertThat(ids(results)).containsExactly(3L, 1L, 2L);
+        assertThat(results.get(0).getScore()).isGreaterThan(results.get(1).getScore());
+        assertThat(results.get(1).getScore()).isEqualTo(results.get(2).getScore());
+    }
+
+    @Test
+    void matchesArabicQueriesAcrossSpellings() {
+        DocumentSearchServiceImpl index = newIndex();
+        store(1L, "تقرير المدرسة عن أحمد");
+        index.indexDocument(1L);
+
+        assertThat(ids(index.search("مدرسه احمد", 10))).containsExactly(1L);
+    }
+
+    @Test
+    void replacesTermsWhenContentChanges() {
+        DocumentSearchServiceImpl index = newIndex();
+        store(1L, "alpha");
+        index.indexDocument(1L);
+        stored.clear();
+        store(1L, "beta");
+        index.indexDocument(1L);
+
+        assertThat(index.search("alpha", 10)).isEmpty();
+        assertThat(ids(index.search("beta", 10))).containsExactly(1L);
+    }
+
+    @Test
+    void forgetsRemovedDocuments() {
+        DocumentSearchServiceImpl index = newIndex();
+        store(1L, "alpha beta");
+        store(2L, "alpha");
+        index.indexDocument(1L);
+        index.indexDocument(2L);
+
+        index.removeDocument(1L);
+
+        assertThat(ids(index.search("alpha beta", 10))).containsExactly(2L);
+    }
+
+    @Test
+    void savesAndLoadsTheIndex() {
+        DocumentSearchServiceImpl index = newIndex();
+        store(1L, "therapy therapy session");
+        store(2L, "therapy المدرسة");
+        index.indexDocument(1L);
+        index.indexDocument(2L);
+        List<DocumentSearchResultDTO> before = index.search("therapy مدرسه", 10);
+        index.flushIndex();
+        clearInvocations(documentService);
+
+        DocumentSearchServiceImpl reloaded = newIndex();
+        reloaded.loadIndex();
+
+        assertThat(reloaded.search("therapy مدرسه", 10)).isEqualTo(before);
+        // Unchanged documents are not read again after a restart
+        assertThat(reloaded.indexMissingDocuments()).isZero();
+        verify(documentService, never()).openDocumentContent(anyLong());
+    }
+
+    @Test
+    void removesDocumentsLoadedFromDisk() {
+        DocumentSearchServiceImpl index = newIndex();
+        store(1L, "alpha");
+        store(2L, "alpha");
+        index.indexDocument(1L);
+        index.indexDocument(2L);
+        index.flushIndex();
+
+        DocumentSearchServiceImpl reloaded = newIndex();
+        reloaded.loadIndex();
+        reloaded.removeDocument(1L);
+
+        assertThat(ids(reloaded.search("alpha", 10))).containsExactly(2L);
+    }
+
+    @Test
+    void startsEmptyFromUnreadableIndexFile() throws IOException {
+        Path indexFile = storageRoot.resolve("index").resolve("documents.idx");
+        Files.createDirectories(indexFile.getParent());
+        Files.write(indexFile, new byte[]{0, 0, 0, 2, 0, 0, 0, 1, 0});
+
+        DocumentSearchServiceImpl index = newIndex();
+        index.loadIndex();
+
+        assertThat(index.search("alpha", 10)).isEmpty();
+    }
+
+    private DocumentSearchServiceImpl newIndex() {
+        return new DocumentSearchServiceImpl(documentRepository, documentService, storageRoot.toString());
+    }
+
+    private void store(Long documentId, String text) {
+        byte[] content = text.getBytes(StandardCharsets.UTF_8);
+        DocumentDTO document = new DocumentDTO(documentId, 1L, null, "doc-" + documentId + ".txt", "text/plain",
+                Integer.toHexString(text.hashCode()), null, (long) content.length, null, 1L);
+        stored.add(document);
+        when(documentRepository.findMetadataById(documentId)).thenReturn(Optional.of(document));
+        when(documentService.openDocumentContent(documentId)).thenAnswer(invocation -> new ByteArrayInputStream(content));
+    }
+
+    private static List<Long> ids(List<DocumentSearchResultDTO> results) {
+        return results.stream().map(DocumentSearchResultDTO::getDocumentId).toList();
+    }
+}
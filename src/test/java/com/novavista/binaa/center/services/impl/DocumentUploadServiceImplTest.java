@@ -0,0 +1,150 @@
+package com.novavista.binaa.center.services.impl;
+
+import com.novavista.binaa.center.entity.Case;
+import com.novavista.binaa.center.entity.DocumentUpload;
+import com.novavista.binaa.center.enums.UploadStatus;
+import com.novavista.binaa.center.exceptions.ResourceNotFoundException;
+import com.novavista.binaa.center.exceptions.ValidationException;
+import com.novavista.binaa.center.repository.CaseRepository;
+import com.novavista.binaa.center.repository.DocumentUploadRepository;
+import com.novavista.binaa.center.security.SecurityUtils;
+import com.novavista.binaa.center.services.DocumentService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class DocumentUploadServiceImplTest {
+    private static final int CHUNK_SIZE = 64 * 1024;
+
+    @TempDir
+    Path storageRoot;
+
+    private DocumentUploadRepository documentUploadRepository;
+    private DocumentUploadServiceImpl service;
+
+    @BeforeEach
+    void setUp() {
+        documentUploadRepository = mock(DocumentUploadRepository.class);
+        service = new DocumentUploadServiceImpl(documentUploadRepository, mock(CaseRepository.class),
+                mock(DocumentService.class), mock(SecurityUtils.class), storageRoot.toString());
+    }
+
+    @Test
+    void storesChunksOfTheExpectedSize() throws IOException {
+        DocumentUpload upload = upload(CHUNK_SIZE + 10, UploadStatus.IN_PROGRESS, Duration.ofHours(1));
+
+        service.writeChunk(upload.getUploadId(), 0, content(CHUNK_SIZE));
+        service.writeChunk(upload.getUploadId(), 1, content(10));
+
+        assertThat(service.writeChunk(upload.getUploadId(), 1, content(10)).getReceivedChunks())
+                .containsExactly(0, 1);
+        assertThat(Files.size(chunkDirectory(upload).resolve("1.part"))).isEqualTo(10);
+    }
+
+    @Test
+    void rejectsALastChunkOfTheWrongSize() {
+        DocumentUpload upload = upload(CHUNK_SIZE + 10, UploadStatus.IN_PROGRESS, Duration.ofHours(1));
+
+        assertThatThrownBy(() -> service.writeChunk(upload.getUploadId(), 1, content(9)))
+                .isInstanceOf(ValidationException.class)
+                .hasMessageContaining("must be 10 bytes");
+        assertThatThrownBy(() -> service.writeChunk(upload.getUploadId(), 1, content(11)))
+                .isInstanceOf(ValidationException.class)
+                .hasMessageContaining("exceeds 10 bytes");
+        assertThat(chunkDirectory(upload).resolve("1.part")).doesNotExist();
+    }
+
+    @Test
+    void rejectsChunksOutsideTheUpload() {
+        DocumentUpload upload = upload(CHUNK_SIZE, UploadStatus.IN_PROGRESS, Duration.ofHours(1));
+
+        assertThatThrownBy(() -> service.writeChunk(upload.getUploadId(), 1, content(1)))
+                .isInstanceOf(ValidationException.class);
+    }
+
+    @Test
+    void rejectsChunksForExpiredUploads() {
+        DocumentUpload upload = upload(CHUNK_SIZE, UploadStatus.IN_PROGRESS, Duration.ofHours(-1));
+
+        assertThatThrownBy(() -> service.writeChunk(upload.getUploadId(), 0, content(CHUNK_SIZE)))
+                .isInstanceOf(ValidationException.class)
+                .hasMessageContaining("expired");
+    }
+
+    @Test
+    void doesNotRecreateTheDirectoryOfARemovedUpload() throws IOException {
+        DocumentUpload upload = upload(CHUNK_SIZE, UploadStatus.IN_PROGRESS, Duration.ofHours(1));
+        Files.delete(chunkDirectory(upload));
+
+        assertThatThrownBy(() -> service.writeChunk(upload.getUploadId(), 0, content(CHUNK_SIZE)))
+                .isInstanceOf(ResourceNotFoundException.class);
+        assertThat(chunkDirectory(upload)).doesNotExist();
+    }
+
+    @Test
+    void removesChunkDirectoriesWithoutAnUploadInProgress() throws IOException {
+        DocumentUpload active = upload(CHUNK_SIZE, UploadStatus.IN_PROGRESS, Duration.ofHours(1));
+        DocumentUpload completed = upload(CHUNK_SIZE, UploadStatus.COMPLETED, Duration.ofHours(1));
+        Path orphan = Files.createDirectories(storageRoot.resolve("chunked-uploads").resolve(UUID.randomUUID().toString()));
+        Path recentOrphan = Files.createDirectories(storageRoot.resolve("chunked-uploads").resolve(UUID.randomUUID().toString()));
+        FileTime old = FileTime.from(Instant.now().minus(Duration.ofHours(2)));
+        for (Path directory : new Path[]{chunkDirectory(active), chunkDirectory(completed), orphan}) {
+            Files.setLastModifiedTime(directory, old);
+        }
+
+        service.removeOrphanedChunks();
+
+        assertThat(chunkDirectory(active)).exists();
+        assertThat(recentOrphan).exists();
+        assertThat(chunkDirectory(completed)).doesNotExist();
+        assertThat(orphan).doesNotExist();
+    }
+
+    /**
+     * An upload as createUpload leaves it: a row and an empty chunk directory
+     */
+    private DocumentUpload upload(long totalSize, UploadStatus status, Duration expiresIn) {
+        Case caseInfo = new Case();
+        caseInfo.setCaseId(1L);
+        DocumentUpload upload = new DocumentUpload();
+        upload.setUploadId(UUID.randomUUID().toString());
+        upload.setCaseInfo(caseInfo);
+        upload.setTotalSize(totalSize);
+        upload.setChunkSize(CHUNK_SIZE);
+        upload.setTotalChunks((int) ((totalSize + CHUNK_SIZE - 1) / CHUNK_SIZE));
+        upload.setStatus(status);
+        upload.setCreatedAt(LocalDateTime.now());
+        upload.setExpiresAt(LocalDateTime.now().plus(expiresIn));
+        when(documentUploadRepository.findById(upload.getUploadId())).thenReturn(Optional.of(upload));
+        try {
+            Files.createDirectories(chunkDirectory(upload));
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        return upload;
+    }
+
+    private Path chunkDirectory(DocumentUpload upload) {
+        return storageRoot.toAbsolutePath().normalize().resolve("chunked-uploads").resolve(upload.getUploadId());
+    }
+
+    private static ByteArrayInputStream content(int size) {
+        return new ByteArrayInputStream(new byte[size]);
+    }
+}
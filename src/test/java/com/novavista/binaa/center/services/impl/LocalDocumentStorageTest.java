@@ -0,0 +1,143 @@
+package com.novavista.binaa.center.services.impl;
+
+import com.novavista.binaa.center.services.StoredContent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class LocalDocumentStorageTest {
+    // SHA-256 of "hello"
+    private static final String HELLO_HASH = "2cf24dba5fb0a30e26e83b2ac5b9e29e1b161e5c1fa7425e73043362938b9824";
+
+    @TempDir
+    Path location;
+
+    private LocalDocumentStorage storage;
+
+    @BeforeEach
+    void setUp() {
+        storage = new LocalDocumentStorage(location.toString());
+    }
+
+    @Test
+    void storesContentUnderItsHash() throws IOException {
+        StoredContent stored = storage.store(content("hello"));
+
+        assertThat(stored.getContentHash()).isEqualTo(HELLO_HASH);
+        assertThat(stored.getSize()).isEqualTo(5);
+        assertThat(stored.isDeduplicated()).isFalse();
+        assertThat(location.resolve("documents/2c/f2/" + HELLO_HASH)).hasContent("hello");
+        try (InputStream in = storage.open(HELLO_HASH)) {
+            assertThat(in.readAllBytes()).isEqualTo("hello".getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    @Test
+    void identicalContentIsStoredOnce() throws IOException {
+        storage.store(content("hello"));
+        StoredContent again = storage.store(content("hello"));
+
+        assertThat(again.getContentHash()).isEqualTo(HELLO_HASH);
+        assertThat(again.isDeduplicated()).isTrue();
+        assertThat(storedFiles()).isEqualTo(1);
+    }
+
+    @Test
+    void leavesNoTempFilesBehind() throws IOException {
+        storage.store(content("hello"));
+        storage.store(content("hello"));
+
+        try (Stream<Path> temp = Files.list(location.resolve("tmp"))) {
+            assertThat(temp).isEmpty();
+        }
+    }
+
+    @Test
+    void rejectsMalformedHashes() {
+        assertThatThrownBy(() -> storage.open("../../etc/passwd"))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> storage.delete(HELLO_HASH.toUpperCase()))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void sweepDeletesOldUnusedContent() throws IOException {
+        storage.store(content("hello"));
+        age(HELLO_HASH, 2);
+
+        int deleted = storage.deleteUnused(Instant.now().minus(1, ChronoUnit.HOURS), hash -> false);
+
+        assertThat(deleted).isEqualTo(1);
+        assertThat(storage.exists(HELLO_HASH)).isFalse();
+    }
+
+    @Test
+    void sweepKeepsContentInUse() throws IOException {
+        storage.store(content("hello"));
+        age(HELLO_HASH, 2);
+
+        int deleted = storage.deleteUnused(Instant.now().minus(1, ChronoUnit.HOURS), HELLO_HASH::equals);
+
+        assertThat(deleted).isZero();
+        assertThat(storage.exists(HELLO_HASH)).isTrue();
+    }
+
+    @Test
+    void sweepKeepsRecentContent() throws IOException {
+        storage.store(content("hello"));
+
+        int deleted = storage.deleteUnused(Instant.now().minus(1, ChronoUnit.HOURS), hash -> false);
+
+        assertThat(deleted).isZero();
+        assertThat(storage.exists(HELLO_HASH)).isTrue();
+    }
+
+    @Test
+    void storingAgainProtectsContentFromTheSweep() throws IOException {
+        storage.store(content("hello"));
+        age(HELLO_HASH, 2);
+
+        storage.store(content("hello"));
+        int deleted = storage.deleteUnused(Instant.now().minus(1, ChronoUnit.HOURS), hash -> false);
+
+        assertThat(deleted).isZero();
+        assertThat(storage.exists(HELLO_HASH)).isTrue();
+    }
+
+    @Test
+    void sweepOfAnEmptyStoreDeletesNothing() throws IOException {
+        assertThat(storage.deleteUnused(Instant.now(), hash -> false)).isZero();
+    }
+
+    private void age(String contentHash, int hours) throws IOException {
+        Path file = location.resolve("documents")
+                .resolve(contentHash.substring(0, 2))
+                .resolve(contentHash.substring(2, 4))
+                .resolve(contentHash);
+        Files.setLastModifiedTime(file, FileTime.from(Instant.now().minus(hours, ChronoUnit.HOURS)));
+    }
+
+    private long storedFiles() throws IOException {
+        try (Stream<Path> files = Files.walk(location.resolve("documents"))) {
+            return files.filter(Files::isRegularFile).count();
+        }
+    }
+
+    private static InputStream content(String text) {
+        return new ByteArrayInputStream(text.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,191 @@
+package com.novavista.binaa.center.services.impl;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class RenderedPdfCacheTest {
+    private static final String KIND = RenderedPdfCache.REPORT;
+
+    @TempDir
+    Path location;
+
+    private final AtomicInteger renders = new AtomicInteger();
+
+    @Test
+    void hitIsNotRenderedAgain() throws IOException {
+        RenderedPdfCache cache = cache(1000, 1000);
+
+        byte[] first = cache.get(KIND, 1L, "v1", renderer(100));
+        byte[] second = cache.get(KIND, 1L, "v1", renderer(100));
+
+        assertThat(second).isEqualTo(first);
+        assertThat(renders).hasValue(1);
+    }
+
+    @Test
+    void newVersionMissesTheCache() throws IOException {
+        RenderedPdfCache cache = cache(1000, 1000);
+
+        cache.get(KIND, 1L, "v1", renderer(100));
+        cache.get(KIND, 1L, "v2", renderer(100));
+
+        assertThat(renders).hasValue(2);
+    }
+
+    @Test
+    void leastRecentlyUsedEntryIsEvictedOverTheDiskBudget() throws IOException {
+        // No memory tier, so every hit goes through the disk index
+        RenderedPdfCache cache = cache(250, 0);
+        cache.get(KIND, 1L, "v", renderer(100));
+        cache.get(KIND, 2L, "v", renderer(100));
+        cache.get(KIND, 1L, "v", renderer(100));
+
+        cache.get(KIND, 3L, "v", renderer(100));
+        renders.set(0);
+        cache.get(KIND, 1L, "v", renderer(100));
+        cache.get(KIND, 3L, "v", renderer(100));
+        assertThat(renders).hasValue(0);
+
+        cache.get(KIND, 2L, "v", renderer(100));
+        assertThat(renders).hasValue(1);
+        assertThat(renderedFiles()).isEqualTo(2);
+    }
+
+    @Test
+    void entryLargerThanTheBudgetIsStillKept() throws IOException {
+        RenderedPdfCache cache = cache(50, 0);
+
+        cache.get(KIND, 1L, "v", renderer(100));
+        cache.get(KIND, 1L, "v", renderer(100));
+
+        assertThat(renders).hasValue(1);
+    }
+
+    @Test
+    void evictDropsEveryVersionOfTheEntity() throws IOException {
+        RenderedPdfCache cache = cache(1000, 1000);
+        cache.get(KIND, 1L, "v1", renderer(100));
+        cache.get(KIND, 1L, "v2", renderer(100));
+        cache.get(KIND, 2L, "v1", renderer(100));
+
+        cache.evict(KIND, 1L);
+
+        assertThat(renderedFiles()).isEqualTo(1);
+        renders.set(0);
+        cache.get(KIND, 1L, "v1", renderer(100));
+        cache.get(KIND, 2L, "v1", renderer(100));
+        assertThat(renders).hasValue(1);
+    }
+
+    @Test
+    void concurrentMissesRenderOnce() throws Exception {
+        RenderedPdfCache cache = cache(1000, 1000);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        RenderedPdfCache.Renderer slow = () -> {
+            started.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return renderer(100).render();
+        };
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<byte[]> first = executor.submit(() -> cache.get(KIND, 1L, "v", slow));
+            assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+            Future<byte[]> second = executor.submit(() -> cache.get(KIND, 1L, "v", slow));
+            Thread.sleep(100);
+            release.countDown();
+
+            assertThat(second.get(5, TimeUnit.SECONDS)).isEqualTo(first.get(5, TimeUnit.SECONDS));
+            assertThat(renders).hasValue(1);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void failedRenderIsNotCached() throws IOException {
+        RenderedPdfCache cache = cache(1000, 1000);
+
+        assertThatThrownBy(() -> cache.get(KIND, 1L, "v", () -> {
+            throw new IOException("broken template");
+        })).isInstanceOf(IOException.class).hasMessage("broken template");
+        cache.get(KIND, 1L, "v", renderer(100));
+
+        assertThat(renders).hasValue(1);
+    }
+
+    @Test
+    void streamedEntryIsServedFromDisk() throws IOException {
+        RenderedPdfCache cache = cache(1000, 1000);
+        RenderedPdfCache.StreamRenderer streamRenderer = out -> out.write(renderer(100).render());
+
+        try (InputStream in = cache.open(KIND, 1L, "v", streamRenderer)) {
+            assertThat(in.readAllBytes()).hasSize(100);
+        }
+        try (InputStream in = cache.open(KIND, 1L, "v", streamRenderer)) {
+            assertThat(in.readAllBytes()).hasSize(100);
+        }
+
+        assertThat(renders).hasValue(1);
+    }
+
+    @Test
+    void restartKeepsFilesAndDropsUnfinishedWrites() throws IOException {
+        cache(1000, 1000).get(KIND, 1L, "v", renderer(100));
+        Files.write(location.resolve("rendered/rendering-1.part"), new byte[10]);
+
+        RenderedPdfCache restarted = cache(1000, 1000);
+        restarted.get(KIND, 1L, "v", renderer(100));
+
+        assertThat(renders).hasValue(1);
+        assertThat(location.resolve("rendered/rendering-1.part")).doesNotExist();
+    }
+
+    @Test
+    void versionChangesWithAnyPart() {
+        assertThat(RenderedPdfCache.version("a", 1)).isEqualTo(RenderedPdfCache.version("a", 1));
+        assertThat(RenderedPdfCache.version("a", 1)).isNotEqualTo(RenderedPdfCache.version("a", 2));
+        assertThat(RenderedPdfCache.version("ab", "c")).isNotEqualTo(RenderedPdfCache.version("a", "bc"));
+    }
+
+    private RenderedPdfCache cache(long maxDiskBytes, long maxMemoryBytes) throws IOException {
+        RenderedPdfCache cache = new RenderedPdfCache(location.toString(),
+                DataSize.ofBytes(maxDiskBytes), DataSize.ofBytes(maxMemoryBytes));
+        cache.loadIndex();
+        return cache;
+    }
+
+    private RenderedPdfCache.Renderer renderer(int size) {
+        return () -> {
+            renders.incrementAndGet();
+            return new byte[size];
+        };
+    }
+
+    private long renderedFiles() throws IOException {
+        try (Stream<Path> files = Files.list(location.resolve("rendered"))) {
+            return files.filter(file -> file.toString().endsWith(".pdf")).count();
+        }
+    }
+}
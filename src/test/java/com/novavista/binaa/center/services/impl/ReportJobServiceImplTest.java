@@ -0,0 +1,186 @@
+package com.novavista.binaa.center.services.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.novavista.binaa.center.dto.request.ReportGenerationRequestDTO;
+import com.novavista.binaa.center.dto.response.ReportJobDTO;
+import com.novavista.binaa.center.entity.Case;
+import com.novavista.binaa.center.entity.ReportJob;
+import com.novavista.binaa.center.enums.ReportJobStatus;
+import com.novavista.binaa.center.enums.ReportType;
+import com.novavista.binaa.center.event.ReportJobQueuedEvent;
+import com.novavista.binaa.center.repository.CaseRepository;
+import com.novavista.binaa.center.repository.ReportJobRepository;
+import com.novavista.binaa.center.repository.ReportRepository;
+import com.novavista.binaa.center.repository.SessionRepository;
+import com.novavista.binaa.center.security.SecurityUtils;
+import com.novavista.binaa.center.services.ReportService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Pageable;
+
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class ReportJobServiceImplTest {
+    private static final int MAX_ATTEMPTS = 3;
+
+    private ReportJobRepository reportJobRepository;
+    private CaseRepository caseRepository;
+    private ApplicationEventPublisher eventPublisher;
+    private ReportJobServiceImpl service;
+
+    @BeforeEach
+    void setUp() {
+        reportJobRepository = mock(ReportJobRepository.class);
+        caseRepository = mock(CaseRepository.class);
+        eventPublisher = mock(ApplicationEventPublisher.class);
+        service = new ReportJobServiceImpl(reportJobRepository, mock(ReportRepository.class), caseRepository,
+                mock(SessionRepository.class), mock(ReportService.class), mock(SecurityUtils.class),
+                eventPublisher, new ObjectMapper(), MAX_ATTEMPTS);
+
+        Case caseInfo = new Case();
+        caseInfo.setCaseId(1L);
+        when(caseRepository.findById(1L)).thenReturn(Optional.of(caseInfo));
+        when(reportJobRepository.findByActiveRequestHash(anyString())).thenReturn(Optional.empty());
+        when(reportJobRepository.save(any(ReportJob.class))).thenAnswer(invocation -> {
+            ReportJob job = invocation.getArgument(0);
+            job.setJobId(10L);
+            return job;
+        });
+    }
+
+    @Test
+    void newRequestIsQueued() {
+        ReportJobDTO job = service.submitJob(request(Map.of("section", "all")));
+
+        assertThat(job.getJobId()).isEqualTo(10L);
+        assertThat(job.getStatus()).isEqualTo(ReportJobStatus.QUEUED);
+        assertThat(job.isDeduplicated()).isFalse();
+        ArgumentCaptor<ReportJobQueuedEvent> event = ArgumentCaptor.forClass(ReportJobQueuedEvent.class);
+        verify(eventPublisher).publishEvent(event.capture());
+        assertThat(event.getValue().getJobId()).isEqualTo(10L);
+    }
+
+    @Test
+    void requestMatchingAnActiveJobReturnsThatJob() {
+        ReportJob active = job(7L, ReportJobStatus.RUNNING);
+        when(reportJobRepository.findByActiveRequestHash(anyString())).thenReturn(Optional.of(active));
+
+        ReportJobDTO job = service.submitJob(request(Map.of("section", "all")));
+
+        assertThat(job.getJobId()).isEqualTo(7L);
+        assertThat(job.getStatus()).isEqualTo(ReportJobStatus.RUNNING);
+        assertThat(job.isDeduplicated()).isTrue();
+        verify(reportJobRepository, never()).save(any());
+        verify(eventPublisher, never()).publishEvent(any(Object.class));
+    }
+
+    @Test
+    void parameterOrderDoesNotChangeTheRequestHash() {
+        Map<String, Object> ordered = new LinkedHashMap<>();
+        ordered.put("a", 1);
+        ordered.put("b", 2);
+        Map<String, Object> reversed = new LinkedHashMap<>();
+        reversed.put("b", 2);
+        reversed.put("a", 1);
+
+        service.submitJob(request(ordered));
+        service.submitJob(request(reversed));
+
+        List<String> hashes = requestHashes(2);
+        assertThat(hashes.get(0)).isEqualTo(hashes.get(1));
+    }
+
+    @Test
+    void differentParametersAreDifferentRequests() {
+        service.submitJob(request(Map.of("section", "all")));
+        service.submitJob(request(Map.of("section", "summary")));
+
+        List<String> hashes = requestHashes(2);
+        assertThat(hashes.get(0)).isNotEqualTo(hashes.get(1));
+    }
+
+    @Test
+    void lostInsertRaceReturnsTheWinningJob() {
+        ReportJob winner = job(8L, ReportJobStatus.QUEUED);
+        when(reportJobRepository.findByActiveRequestHash(anyString()))
+                .thenReturn(Optional.empty())
+                .thenReturn(Optional.of(winner));
+        doThrow(new DataIntegrityViolationException("uk_report_jobs_active_request_hash"))
+                .when(reportJobRepository).save(any(ReportJob.class));
+
+        ReportJobDTO job = service.submitJob(request(Map.of("section", "all")));
+
+        assertThat(job.getJobId()).isEqualTo(8L);
+        assertThat(job.isDeduplicated()).isTrue();
+        verify(eventPublisher, never()).publishEvent(any(Object.class));
+    }
+
+    @Test
+    void claimPassesTheAttemptLimitAndKeepsOnlyWonClaims() {
+        when(reportJobRepository.findIdsByStatus(eq(ReportJobStatus.QUEUED), any(Pageable.class)))
+                .thenReturn(List.of(1L, 2L));
+        when(reportJobRepository.claim(eq(1L), eq(ReportJobStatus.QUEUED), eq(ReportJobStatus.RUNNING),
+                any(), eq(MAX_ATTEMPTS))).thenReturn(1);
+        when(reportJobRepository.claim(eq(2L), eq(ReportJobStatus.QUEUED), eq(ReportJobStatus.RUNNING),
+                any(), eq(MAX_ATTEMPTS))).thenReturn(0);
+
+        assertThat(service.claimQueuedJobs(5)).containsExactly(1L);
+    }
+
+    @Test
+    void exhaustedJobsFailBeforeInterruptedOnesAreRequeued() {
+        when(reportJobRepository.failExhausted(any(), eq(ReportJobStatus.FAILED), eq(MAX_ATTEMPTS), anyString(), any()))
+                .thenReturn(1);
+        when(reportJobRepository.updateStatus(ReportJobStatus.RUNNING, ReportJobStatus.QUEUED)).thenReturn(2);
+
+        assertThat(service.requeueInterruptedJobs()).isEqualTo(2);
+
+        InOrder order = inOrder(reportJobRepository);
+        order.verify(reportJobRepository).failExhausted(
+                eq(List.of(ReportJobStatus.RUNNING, ReportJobStatus.QUEUED)), eq(ReportJobStatus.FAILED),
+                eq(MAX_ATTEMPTS), anyString(), any());
+        order.verify(reportJobRepository).updateStatus(ReportJobStatus.RUNNING, ReportJobStatus.QUEUED);
+    }
+
+    private List<String> requestHashes(int submissions) {
+        ArgumentCaptor<String> hashes = ArgumentCaptor.forClass(String.class);
+        verify(reportJobRepository, times(submissions)).findByActiveRequestHash(hashes.capture());
+        return hashes.getAllValues();
+    }
+
+    private static ReportGenerationRequestDTO request(Map<String, Object> parameters) {
+        return new ReportGenerationRequestDTO(1L, null, ReportType.PROGRESS,
+                LocalDate.of(2026, 1, 1), LocalDate.of(2026, 1, 31), null, parameters);
+    }
+
+    private static ReportJob job(Long jobId, ReportJobStatus status) {
+        Case caseInfo = new Case();
+        caseInfo.setCaseId(1L);
+        ReportJob job = new ReportJob();
+        job.setJobId(jobId);
+        job.setCaseInfo(caseInfo);
+        job.setReportType(ReportType.PROGRESS);
+        job.setStatus(status);
+        return job;
+    }
+}
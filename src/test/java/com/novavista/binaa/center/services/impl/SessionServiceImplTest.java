@@ -0,0 +1,78 @@
+package com.novavista.binaa.center.services.impl;
+
+import com.novavista.binaa.center.dto.response.SessionResponseDTO;
+import com.novavista.binaa.center.enums.SessionRecurrence;
+import com.novavista.binaa.center.enums.SessionType;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SessionServiceImplTest {
+    private static final LocalDateTime FIRST = LocalDateTime.of(2026, 3, 2, 10, 0);
+
+    @Test
+    void weeklySeriesRepeatsEveryWeekAtTheSameTime() {
+        assertThat(SessionServiceImpl.occurrenceDates(FIRST, SessionRecurrence.WEEKLY, 3))
+                .containsExactly(FIRST, FIRST.plusWeeks(1), FIRST.plusWeeks(2));
+    }
+
+    @Test
+    void biweeklySeriesSkipsAWeek() {
+        assertThat(SessionServiceImpl.occurrenceDates(FIRST, SessionRecurrence.BIWEEKLY, 3))
+                .containsExactly(FIRST, FIRST.plusWeeks(2), FIRST.plusWeeks(4));
+    }
+
+    @Test
+    void singleOccurrenceIsTheFirstDate() {
+        assertThat(SessionServiceImpl.occurrenceDates(FIRST, SessionRecurrence.WEEKLY, 1))
+                .containsExactly(FIRST);
+    }
+
+    @Test
+    void occurrenceOverlappingAnExistingSessionClashes() {
+        List<LocalDateTime> dates = List.of(FIRST, FIRST.plusWeeks(1));
+        List<SessionResponseDTO> existing = List.of(existing(FIRST.plusWeeks(1).plusMinutes(30), 60));
+
+        assertThat(SessionServiceImpl.findClashes(dates, 45, existing))
+                .containsExactly(FIRST.plusWeeks(1));
+    }
+
+    @Test
+    void occurrenceInsideALongerSessionClashes() {
+        List<SessionResponseDTO> existing = List.of(existing(FIRST.minusMinutes(30), 120));
+
+        assertThat(SessionServiceImpl.findClashes(List.of(FIRST), 45, existing))
+                .containsExactly(FIRST);
+    }
+
+    @Test
+    void backToBackSessionsDoNotClash() {
+        List<SessionResponseDTO> existing = List.of(
+                existing(FIRST.minusMinutes(60), 60),
+                existing(FIRST.plusMinutes(45), 30));
+
+        assertThat(SessionServiceImpl.findClashes(List.of(FIRST), 45, existing)).isEmpty();
+    }
+
+    @Test
+    void existingSessionWithoutDurationOnlyClashesWhenItStartsInside() {
+        List<SessionResponseDTO> startsBefore = List.of(existing(FIRST.minusMinutes(10), null));
+        List<SessionResponseDTO> startsInside = List.of(existing(FIRST.plusMinutes(10), null));
+
+        assertThat(SessionServiceImpl.findClashes(List.of(FIRST), 45, startsBefore)).isEmpty();
+        assertThat(SessionServiceImpl.findClashes(List.of(FIRST), 45, startsInside)).containsExactly(FIRST);
+    }
+
+    @Test
+    void noExistingSessionsMeansNoClashes() {
+        assertThat(SessionServiceImpl.findClashes(List.of(FIRST, FIRST.plusWeeks(1)), 45, List.of())).isEmpty();
+    }
+
+    private static SessionResponseDTO existing(LocalDateTime sessionDate, Integer duration) {
+        return new SessionResponseDTO(1L, 1L, "Therapy", sessionDate, null, 1L,
+                SessionType.INDIVIDUAL, null, duration, "Case", "Staff");
+    }
+}
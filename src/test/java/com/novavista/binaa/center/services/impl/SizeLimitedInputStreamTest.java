@@ -0,0 +1,83 @@
+package com.novavista.binaa.center.services.impl;
+
+import com.novavista.binaa.center.exceptions.PayloadTooLargeException;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SizeLimitedInputStreamTest {
+
+    @Test
+    void passesContentUpToTheLimit() throws IOException {
+        SizeLimitedInputStream in = new SizeLimitedInputStream(new ByteArrayInputStream(new byte[100]), 100);
+
+        assertThat(in.readAllBytes()).hasSize(100);
+        assertThat(in.getCount()).isEqualTo(100);
+    }
+
+    @Test
+    void failsAsSoonAsTheLimitIsCrossed() {
+        CountingInputStream source = new CountingInputStream(1000);
+        SizeLimitedInputStream in = new SizeLimitedInputStream(source, 100);
+
+        assertThatThrownBy(() -> in.transferTo(OutputStream.nullOutputStream()))
+                .isInstanceOf(PayloadTooLargeException.class);
+        // The rest of an oversized upload is never read
+        assertThat(source.read).isLessThan(1000);
+    }
+
+    @Test
+    void countsSingleByteReads() throws IOException {
+        SizeLimitedInputStream in = new SizeLimitedInputStream(new ByteArrayInputStream(new byte[2]), 1);
+
+        assertThat(in.read()).isZero();
+        assertThatThrownBy(in::read).isInstanceOf(PayloadTooLargeException.class);
+    }
+
+    @Test
+    void countsSkippedBytes() throws IOException {
+        SizeLimitedInputStream in = new SizeLimitedInputStream(new ByteArrayInputStream(new byte[10]), 5);
+
+        assertThat(in.skip(5)).isEqualTo(5);
+        assertThatThrownBy(() -> in.skip(1)).isInstanceOf(PayloadTooLargeException.class);
+    }
+
+    @Test
+    void doesNotSupportMark() {
+        assertThat(new SizeLimitedInputStream(new ByteArrayInputStream(new byte[1]), 1).markSupported()).isFalse();
+    }
+
+    private static final class CountingInputStream extends InputStream {
+        private final int size;
+        private int read;
+
+        private CountingInputStream(int size) {
+            this.size = size;
+        }
+
+        @Override
+        public int read() {
+            if (read >= size) {
+                return -1;
+            }
+            read++;
+            return 0;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+            if (read >= size) {
+                return -1;
+            }
+            int n = Math.min(Math.min(len, 64), size - read);
+            read += n;
+            return n;
+        }
+    }
+}
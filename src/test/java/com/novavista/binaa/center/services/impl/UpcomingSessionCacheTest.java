@@ -0,0 +1,121 @@
+package com.novavista.binaa.center.services.impl;
+
+import com.novavista.binaa.center.dto.response.SessionResponseDTO;
+import com.novavista.binaa.center.enums.SessionType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class UpcomingSessionCacheTest {
+    private UpcomingSessionCache cache;
+    private AtomicInteger loads;
+
+    @BeforeEach
+    void setUp() {
+        cache = new UpcomingSessionCache(Duration.ofMinutes(5));
+        loads = new AtomicInteger();
+    }
+
+    @Test
+    void hitIsServedWithoutLoading() {
+        Function<LocalDateTime, List<SessionResponseDTO>> loader = counting(List.of(session(1L, 60)));
+
+        cache.get(7L, loader);
+        List<SessionResponseDTO> sessions = cache.get(7L, loader);
+
+        assertThat(sessions).extracting(SessionResponseDTO::getSessionId).containsExactly(1L);
+        assertThat(loads).hasValue(1);
+    }
+
+    @Test
+    void evictionForcesAReload() {
+        Function<LocalDateTime, List<SessionResponseDTO>> loader = counting(List.of(session(1L, 60)));
+        cache.get(7L, loader);
+
+        cache.evict(7L);
+        cache.get(7L, loader);
+
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    void evictionOnlyDropsTheChangedStaffAndAllStaff() {
+        Function<LocalDateTime, List<SessionResponseDTO>> loader = counting(List.of(session(1L, 60)));
+        cache.get(7L, loader);
+        cache.get(8L, loader);
+        cache.get(null, loader);
+
+        cache.evict(7L, null);
+        cache.get(7L, loader);
+        cache.get(8L, loader);
+        cache.get(null, loader);
+
+        assertThat(loads).hasValue(5);
+    }
+
+    @Test
+    void loadRacingAnEvictionIsNotKept() {
+        List<SessionResponseDTO> stale = List.of(session(1L, 60));
+        Function<LocalDateTime, List<SessionResponseDTO>> racing = from -> {
+            loads.incrementAndGet();
+            cache.evict(7L);
+            return stale;
+        };
+
+        assertThat(cache.get(7L, racing)).hasSize(1);
+        cache.get(7L, counting(List.of(session(2L, 60))));
+
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    void loadAfterAnEvictionIsKept() {
+        Function<LocalDateTime, List<SessionResponseDTO>> loader = counting(List.of(session(1L, 60)));
+        cache.evict(7L);
+
+        cache.get(7L, loader);
+        cache.get(7L, loader);
+
+        assertThat(loads).hasValue(1);
+    }
+
+    @Test
+    void expiredWindowIsReloaded() {
+        cache = new UpcomingSessionCache(Duration.ZERO);
+        Function<LocalDateTime, List<SessionResponseDTO>> loader = counting(List.of(session(1L, 60)));
+
+        cache.get(7L, loader);
+        cache.get(7L, loader);
+
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    void startedSessionsAreNotServed() {
+        Function<LocalDateTime, List<SessionResponseDTO>> loader =
+                counting(List.of(session(1L, -5), session(2L, 60)));
+
+        assertThat(cache.get(7L, loader))
+                .extracting(SessionResponseDTO::getSessionId)
+                .containsExactly(2L);
+    }
+
+    private Function<LocalDateTime, List<SessionResponseDTO>> counting(List<SessionResponseDTO> sessions) {
+        return from -> {
+            loads.incrementAndGet();
+            return sessions;
+        };
+    }
+
+    private static SessionResponseDTO session(Long sessionId, int minutesFromNow) {
+        return new SessionResponseDTO(sessionId, 1L, "Therapy", LocalDateTime.now().plusMinutes(minutesFromNow),
+                null, 7L, SessionType.INDIVIDUAL, null, 45, "Case", "Staff");
+    }
+}